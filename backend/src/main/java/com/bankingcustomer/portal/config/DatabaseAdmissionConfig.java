@@ -0,0 +1,35 @@
+package com.bankingcustomer.portal.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Puts the {@link DatabaseAdmissionLimiter} in front of the endpoints that block on JDBC. By
+ * default the limit matches the Hikari pool size, so the pool stays the concurrency governor.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true")
+public class DatabaseAdmissionConfig implements WebMvcConfigurer {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.admission.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int maxConcurrent;
+    
+    @Value("${app.admission.wait-ms:1000}")
+    private long waitMs;
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DatabaseAdmissionLimiter(maxConcurrent, waitMs, meterRegistry))
+                .addPathPatterns("/api/accounts/**", "/api/transactions/**", "/api/transfers/**", "/api/admin/**")
+                // An open stream holds no connection, but would keep its permit until it closes
+                .excludePathPatterns("/api/accounts/stream");
+    }
+}
@@ -0,0 +1,60 @@
+package com.bankingcustomer.portal.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits at most a fixed number of requests into the database-heavy endpoints at once, sized to
+ * the connection pool. A request that cannot get a permit within the wait time is answered with
+ * 503 instead of queueing on the pool until its connection timeout. With virtual threads the
+ * request thread count no longer bounds this.
+ */
+public class DatabaseAdmissionLimiter implements AsyncHandlerInterceptor {
+    
+    private static final String PERMIT_ATTRIBUTE = DatabaseAdmissionLimiter.class.getName() + ".permit";
+    
+    private final Semaphore permits;
+    private final long waitMs;
+    private final Counter rejections;
+    
+    public DatabaseAdmissionLimiter(int maxConcurrent, long waitMs, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.waitMs = waitMs;
+        this.rejections = meterRegistry.counter("portal.admission.rejected");
+        meterRegistry.gauge("portal.admission.available", permits, Semaphore::availablePermits);
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        // Async dispatches (streamed exports) still hold the permit of their initial request
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        if (!permits.tryAcquire(waitMs, TimeUnit.MILLISECONDS)) {
+            rejections.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.getWriter().write("Error: Server is busy, please retry shortly");
+            return false;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // For async requests this only runs on the final dispatch, once the response is complete
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.bankingcustomer.portal.config;
+
+import com.bankingcustomer.portal.util.ReferenceNumberGenerator;
+import com.bankingcustomer.portal.util.ReferenceNumbers;
+import com.bankingcustomer.portal.util.SnowflakeReferenceNumberGenerator;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ReferenceNumberConfig {
+    
+    // Must be distinct on every node sharing a database (0-1023)
+    @Value("${app.reference.node-id:0}")
+    private long nodeId;
+    
+    @Bean
+    @ConditionalOnMissingBean(ReferenceNumberGenerator.class)
+    public ReferenceNumberGenerator referenceNumberGenerator() {
+        return new SnowflakeReferenceNumberGenerator(nodeId);
+    }
+    
+    @Bean
+    public InitializingBean referenceNumberInstaller(ReferenceNumberGenerator referenceNumberGenerator) {
+        return () -> ReferenceNumbers.setGenerator(referenceNumberGenerator);
+    }
+}
@@ -0,0 +1,99 @@
+package com.bankingcustomer.portal.config;
+
+import com.bankingcustomer.portal.event.AccountOpenedEvent;
+import com.bankingcustomer.portal.event.LedgerPostedEvent;
+import com.bankingcustomer.portal.event.TransferStatusChangedEvent;
+import com.bankingcustomer.portal.event.UserUpdatedEvent;
+import com.bankingcustomer.portal.security.AuthenticatedUser;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides when a read-only transaction must not go to a replica: for a while after the current
+ * user committed a write of their own (so a user sees their transfer right away even if the
+ * replicas have not replayed it yet), and never to a replica the lag monitor found behind.
+ */
+public class ReplicaLagGuard {
+    
+    private static final int PURGE_THRESHOLD = 10_000;
+    
+    private final long pinAfterWriteMs;
+    
+    // User id to the time until which their reads go to the primary
+    private final Map<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+    
+    private final Set<String> laggingReplicas = ConcurrentHashMap.newKeySet();
+    
+    public ReplicaLagGuard(long pinAfterWriteMs) {
+        this.pinAfterWriteMs = pinAfterWriteMs;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerPosted(LedgerPostedEvent event) {
+        pinCurrentUser();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransferStatusChanged(TransferStatusChangedEvent event) {
+        pinCurrentUser();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountOpened(AccountOpenedEvent event) {
+        pinCurrentUser();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        pinCurrentUser();
+    }
+    
+    /**
+     * Pins the user of the current request, background work has none and pins nobody.
+     */
+    public void pinCurrentUser() {
+        Long userId = currentUserId();
+        if (userId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (pinnedUntil.size() >= PURGE_THRESHOLD) {
+            pinnedUntil.values().removeIf(until -> until <= now);
+        }
+        pinnedUntil.put(userId, now + pinAfterWriteMs);
+    }
+    
+    public boolean isCurrentUserPinned() {
+        Long userId = currentUserId();
+        if (userId == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(userId);
+        return until != null && until > System.currentTimeMillis();
+    }
+    
+    public boolean isLagging(String replica) {
+        return laggingReplicas.contains(replica);
+    }
+    
+    public void setLagging(String replica, boolean lagging) {
+        if (lagging) {
+            laggingReplicas.add(replica);
+        } else {
+            laggingReplicas.remove(replica);
+        }
+    }
+    
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,73 @@
+package com.bankingcustomer.portal.config;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically measures the replay lag of each replica and takes replicas that are too far
+ * behind, or unreachable, out of the read rotation until they catch up.
+ */
+public class ReplicaLagMonitor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    
+    private final Map<String, DataSource> replicas;
+    private final ReplicaLagGuard lagGuard;
+    private final String lagQuery;
+    private final long maxLagMs;
+    private final long intervalMs;
+    
+    private ScheduledExecutorService scheduler;
+    
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, ReplicaLagGuard lagGuard,
+                             String lagQuery, long maxLagMs, long intervalMs) {
+        this.replicas = replicas;
+        this.lagGuard = lagGuard;
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+        this.intervalMs = intervalMs;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(this::checkAll, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+    
+    void checkAll() {
+        replicas.forEach(this::check);
+    }
+    
+    private void check(String name, DataSource replica) {
+        boolean lagging;
+        try {
+            Number lagMs = new JdbcTemplate(replica).queryForObject(lagQuery, Number.class);
+            lagging = lagMs == null || lagMs.longValue() > maxLagMs;
+        } catch (RuntimeException e) {
+            logger.warn("Could not measure lag of replica {}: {}", name, e.getMessage());
+            lagging = true;
+        }
+        if (lagging != lagGuard.isLagging(name)) {
+            logger.info("Replica {} {} the read rotation", name, lagging ? "leaves" : "rejoins");
+        }
+        lagGuard.setLagging(name, lagging);
+    }
+}
@@ -0,0 +1,115 @@
+package com.bankingcustomer.portal.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas for read-only transactions. The primary pool is configured as usual through
+ * spring.datasource.*; each replica gets its own pool with the primary's credentials unless
+ * overridden. Off unless app.datasource.replicas.enabled is set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+    
+    @Value("${app.datasource.replicas.urls}")
+    private List<String> replicaUrls;
+    
+    @Value("${app.datasource.replicas.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+    
+    @Value("${app.datasource.replicas.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+    
+    @Value("${app.datasource.replicas.pool-size:10}")
+    private int replicaPoolSize;
+    
+    @Value("${app.datasource.replicas.pin-after-write-ms:5000}")
+    private long pinAfterWriteMs;
+    
+    @Value("${app.datasource.replicas.max-lag-ms:2000}")
+    private long maxLagMs;
+    
+    @Value("${app.datasource.replicas.lag-check-interval-ms:1000}")
+    private long lagCheckIntervalMs;
+    
+    @Value("${app.datasource.replicas.lag-query}")
+    private String lagQuery;
+    
+    // Replica pools by name, not beans: a Map<String, DataSource> injection point would collect every DataSource bean
+    private final Map<String, DataSource> replicas = new LinkedHashMap<>();
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean
+    public ReplicaLagGuard replicaLagGuard() {
+        return new ReplicaLagGuard(pinAfterWriteMs);
+    }
+    
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(DataSourceProperties properties, ReplicaLagGuard replicaLagGuard) {
+        return new ReplicaLagMonitor(replicas(properties), replicaLagGuard, lagQuery, maxLagMs, lagCheckIntervalMs);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, DataSourceProperties properties,
+                                 ReplicaLagGuard replicaLagGuard, MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                primaryDataSource, replicas(properties), replicaLagGuard, meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+    
+    @PreDestroy
+    public void closeReplicas() {
+        replicas.values().forEach(replica -> ((HikariDataSource) replica).close());
+    }
+    
+    private synchronized Map<String, DataSource> replicas(DataSourceProperties properties) {
+        if (replicas.isEmpty()) {
+            for (String url : replicaUrls) {
+                String name = "replica-" + (replicas.size() + 1);
+                HikariDataSource replica = new HikariDataSource();
+                replica.setPoolName(name);
+                replica.setJdbcUrl(url.trim());
+                replica.setUsername(replicaUsername);
+                replica.setPassword(replicaPassword);
+                replica.setDriverClassName(properties.determineDriverClassName());
+                replica.setMaximumPoolSize(replicaPoolSize);
+                replica.setReadOnly(true);
+                replicas.put(name, replica);
+            }
+        }
+        return replicas;
+    }
+    
+    /**
+     * With open-in-view the session would otherwise keep the connection of its first transaction
+     * for the whole request, so a later read-only transaction could never move to a replica.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put("hibernate.connection.handling_mode",
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+}
@@ -0,0 +1,64 @@
+package com.bankingcustomer.portal.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions to the replicas, round robin, and everything else
+ * to the primary. Must sit behind a LazyConnectionDataSourceProxy: the read-only flag of a
+ * transaction is only visible once it has begun, so the connection has to be fetched lazily.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    static final String PRIMARY = "primary";
+    
+    private final List<String> replicas;
+    private final ReplicaLagGuard lagGuard;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routed = new HashMap<>();
+    
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    ReplicaLagGuard lagGuard, MeterRegistry meterRegistry) {
+        this.replicas = new ArrayList<>(replicas.keySet());
+        this.lagGuard = lagGuard;
+        
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        for (Object target : targets.keySet()) {
+            routed.put((String) target, meterRegistry.counter("portal.datasource.routed", "target", (String) target));
+        }
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String target = route();
+        routed.get(target).increment();
+        return target;
+    }
+    
+    private String route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || lagGuard.isCurrentUserPinned()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            String replica = replicas.get((start + i) % replicas.size());
+            if (!lagGuard.isLagging(replica)) {
+                return replica;
+            }
+        }
+        // Every replica is behind, the primary serves the read
+        return PRIMARY;
+    }
+}
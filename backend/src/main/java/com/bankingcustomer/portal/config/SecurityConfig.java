@@ -2,7 +2,10 @@ package com.bankingcustomer.portal.config;
 
 import com.bankingcustomer.portal.security.CustomUserDetailsService;
 import com.bankingcustomer.portal.security.JwtAuthenticationFilter;
+import com.bankingcustomer.portal.security.OffloadedPasswordEncoder;
+import com.bankingcustomer.portal.security.PasswordHashingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -35,15 +38,23 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    
+    // Hashes below this cost are upgraded on the next successful login
+    @Value("${app.security.bcrypt.strength:10}")
+    private int bcryptStrength;
+    
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new OffloadedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), passwordHashingService);
     }
     
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
         return authProvider;
     }
@@ -75,6 +86,8 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/debug/**").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
+                // Metrics expose retry counts, queue depths and cache hit rates, not for clients
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .requestMatchers("/api/user/**").hasAnyRole("CLIENT", "ADMIN")
                 .requestMatchers("/api/accounts/**").hasAnyRole("CLIENT", "ADMIN")
@@ -0,0 +1,48 @@
+package com.bankingcustomer.portal.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Bounded executor the login and registration handlers run on. A login storm fills its queue
+ * and is then turned away with a 503, rather than queueing sign-in work without limit.
+ */
+@Configuration
+public class SignInExecutorConfig {
+
+    public static final String SIGN_IN_EXECUTOR = "signInExecutor";
+
+    @Value("${app.security.sign-in.threads:4}")
+    private int threads;
+
+    @Value("${app.security.sign-in.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Bean(name = SIGN_IN_EXECUTOR)
+    public ThreadPoolTaskExecutor signInExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setThreadNamePrefix("sign-in-");
+        return executor;
+    }
+
+    // Boot only creates its own executor when no other Executor bean exists, declare it here so MVC
+    // async handling (streamed exports) keeps using the configured spring.task.execution pool
+    @Lazy
+    @Primary
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -2,18 +2,31 @@ package com.bankingcustomer.portal.controller;
 
 import com.bankingcustomer.portal.dto.account.AccountDto;
 import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.AccountActivityRollup;
 import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.security.AuthenticatedUser;
+import com.bankingcustomer.portal.service.AccountAnalyticsService;
 import com.bankingcustomer.portal.service.AccountService;
+import com.bankingcustomer.portal.service.AccountStreamHub;
 import com.bankingcustomer.portal.service.UserService;
+import com.bankingcustomer.portal.util.ETags;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -27,29 +40,63 @@ public class AccountController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private AccountAnalyticsService accountAnalyticsService;
+    
+    @Autowired
+    private AccountStreamHub accountStreamHub;
+    
     @GetMapping
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
-    public ResponseEntity<?> getUserAccounts(Authentication authentication) {
+    public ResponseEntity<?> getUserAccounts(Authentication authentication, WebRequest request) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            // Versions are read before the accounts, so a change committed in between leaves the
+            // tag behind the body and the next request fetches it again rather than missing it
+            String versions = accountService.getActiveAccountVersions(user.getId()).stream()
+                .map(version -> version.getId() + ":" + version.getVersion())
+                .collect(Collectors.joining(","));
+            String etag = ETags.of("accounts", user.getId(), versions);
+            if (request.checkNotModified(etag)) {
+                return ETags.notModified(etag);
+            }
+            
             List<Account> accounts = accountService.getActiveAccountsByUserId(user.getId());
             
             List<AccountDto> accountDtos = accounts.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
             
-            return ResponseEntity.ok(accountDtos);
+            return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ETags.PRIVATE_REVALIDATE)
+                .body(accountDtos);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Error: Could not retrieve accounts - " + e.getMessage());
         }
     }
     
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
+    public ResponseEntity<SseEmitter> streamAccountUpdates(Authentication authentication) {
+        try {
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(accountStreamHub.subscribe(user.getId()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .build();
+        }
+    }
+    
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
-    public ResponseEntity<?> getAccountById(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<?> getAccountById(@PathVariable Long id, Authentication authentication, WebRequest request) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             Account account = accountService.getAccountById(id)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
             
@@ -59,7 +106,15 @@ public class AccountController {
                     .body("Error: Access denied");
             }
             
-            return ResponseEntity.ok(convertToDto(account));
+            String etag = ETags.of("account", account.getId(), account.getVersion());
+            if (request.checkNotModified(etag)) {
+                return ETags.notModified(etag);
+            }
+            
+            return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ETags.PRIVATE_REVALIDATE)
+                .body(convertToDto(account));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Error: Could not retrieve account - " + e.getMessage());
@@ -68,9 +123,9 @@ public class AccountController {
     
     @GetMapping("/iban/{iban}")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
-    public ResponseEntity<?> getAccountByIban(@PathVariable String iban, Authentication authentication) {
+    public ResponseEntity<?> getAccountByIban(@PathVariable String iban, Authentication authentication, WebRequest request) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             Account account = accountService.getAccountByIban(iban)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
             
@@ -80,7 +135,16 @@ public class AccountController {
                     .body("Error: Access denied");
             }
             
-            return ResponseEntity.ok(convertToDto(account));
+            // Same representation as GET /{id}, so the same tag
+            String etag = ETags.of("account", account.getId(), account.getVersion());
+            if (request.checkNotModified(etag)) {
+                return ETags.notModified(etag);
+            }
+            
+            return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ETags.PRIVATE_REVALIDATE)
+                .body(convertToDto(account));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Error: Could not retrieve account - " + e.getMessage());
@@ -89,9 +153,9 @@ public class AccountController {
     
     @GetMapping("/{id}/balance")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
-    public ResponseEntity<?> getAccountBalance(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<?> getAccountBalance(@PathVariable Long id, Authentication authentication, WebRequest request) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             Account account = accountService.getAccountById(id)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
             
@@ -101,14 +165,50 @@ public class AccountController {
                     .body("Error: Access denied");
             }
             
+            String etag = ETags.of("balance", account.getId(), account.getVersion());
+            if (request.checkNotModified(etag)) {
+                return ETags.notModified(etag);
+            }
+            
             BigDecimal balance = accountService.getAccountBalance(id);
-            return ResponseEntity.ok(new BalanceResponse(balance));
+            return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ETags.PRIVATE_REVALIDATE)
+                .body(new BalanceResponse(balance));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Error: Could not retrieve balance - " + e.getMessage());
         }
     }
     
+    @GetMapping("/{id}/analytics")
+    @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
+    public ResponseEntity<?> getAccountAnalytics(@PathVariable Long id,
+                                                 @RequestParam(defaultValue = "month") String granularity,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                 Authentication authentication) {
+        try {
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            Account account = accountService.getAccountById(id)
+                .orElseThrow(() -> new RuntimeException("Account not found"));
+            
+            // Check if the account belongs to the authenticated user (unless admin)
+            if (!user.getRole().equals(User.Role.ADMIN) && !account.getUser().getId().equals(user.getId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("Error: Access denied");
+            }
+            
+            AccountActivityRollup.Granularity bucket = accountAnalyticsService.parseGranularity(granularity);
+            return ResponseEntity.ok(accountAnalyticsService.getAnalytics(id, bucket, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error: Could not retrieve analytics - " + e.getMessage());
+        }
+    }
+    
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> createAccount(@RequestBody AccountCreationRequest request) {
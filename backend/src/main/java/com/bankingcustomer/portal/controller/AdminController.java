@@ -1,6 +1,8 @@
 package com.bankingcustomer.portal.controller;
 
 import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.service.AccountAnalyticsService;
+import com.bankingcustomer.portal.service.AdminStatsService;
 import com.bankingcustomer.portal.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -20,11 +22,39 @@ public class AdminController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private AdminStatsService adminStatsService;
+    
+    @Autowired
+    private AccountAnalyticsService accountAnalyticsService;
+    
     @GetMapping("/test")
     public ResponseEntity<?> testEndpoint() {
         return ResponseEntity.ok("Admin endpoint is working!");
     }
     
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats() {
+        try {
+            return ResponseEntity.ok(adminStatsService.getStats());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error: Could not retrieve statistics - " + e.getMessage());
+        }
+    }
+    
+    @PostMapping("/analytics/backfill")
+    public ResponseEntity<?> backfillAnalytics() {
+        try {
+            Map<String, Object> result = new HashMap<>();
+            result.put("rows", accountAnalyticsService.backfill());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error: Could not rebuild analytics - " + e.getMessage());
+        }
+    }
+    
     @GetMapping("/users")
     public ResponseEntity<?> getAllUsers() {
         try {
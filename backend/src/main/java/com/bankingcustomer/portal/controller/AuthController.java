@@ -1,21 +1,28 @@
 package com.bankingcustomer.portal.controller;
 
+import com.bankingcustomer.portal.config.SignInExecutorConfig;
 import com.bankingcustomer.portal.dto.auth.JwtResponse;
 import com.bankingcustomer.portal.dto.auth.LoginRequest;
 import com.bankingcustomer.portal.dto.auth.RegisterRequest;
 import com.bankingcustomer.portal.entity.User;
 import com.bankingcustomer.portal.security.JwtUtils;
+import com.bankingcustomer.portal.security.UserPrincipal;
 import com.bankingcustomer.portal.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -30,17 +37,46 @@ public class AuthController {
     @Autowired
     private JwtUtils jwtUtils;
     
+    // Runs the sign-in handlers, the password encoder in turn hands only the hashing itself to
+    // the password hashing pool, so lookups and saves never occupy a hashing thread. Bounded, so
+    // a login storm is answered with 503 once its queue is full
+    @Autowired
+    @Qualifier(SignInExecutorConfig.SIGN_IN_EXECUTOR)
+    private AsyncTaskExecutor signInExecutor;
+    
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        // Verifying the password is the expensive part, free the request thread while it waits for a hashing thread
+        return offload(() -> login(loginRequest));
+    }
+    
+    @PostMapping("/register")
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody RegisterRequest registerRequest) {
+        return offload(() -> register(registerRequest));
+    }
+    
+    private CompletableFuture<ResponseEntity<?>> offload(Supplier<ResponseEntity<?>> handler) {
+        try {
+            return CompletableFuture.supplyAsync(handler, signInExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests());
+        }
+    }
+    
+    private static ResponseEntity<?> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .body("Error: Too many sign-in requests, please try again shortly");
+    }
+    
+    private ResponseEntity<?> login(LoginRequest loginRequest) {
         try {
             Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
             );
             
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = jwtUtils.generateToken((User) authentication.getPrincipal());
+            String jwt = jwtUtils.generateToken((UserPrincipal) authentication.getPrincipal());
             
-            User user = (User) authentication.getPrincipal();
+            UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
             
             return ResponseEntity.ok(new JwtResponse(
                 jwt,
@@ -49,14 +85,16 @@ public class AuthController {
                 user.getEmail(),
                 user.getRole().name()
             ));
+        } catch (RejectedExecutionException e) {
+            // The hashing pool's queue is full
+            return tooManyRequests();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body("Error: Invalid username or password");
         }
     }
     
-    @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest registerRequest) {
+    private ResponseEntity<?> register(RegisterRequest registerRequest) {
         try {
             // Check if username already exists
             if (userService.existsByUsername(registerRequest.getUsername())) {
@@ -84,6 +122,8 @@ public class AuthController {
             
             return ResponseEntity.ok("User registered successfully!");
             
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Error: Could not register user - " + e.getMessage());
@@ -1,21 +1,27 @@
 package com.bankingcustomer.portal.controller;
 
+import com.bankingcustomer.portal.dto.CursorPage;
 import com.bankingcustomer.portal.dto.transaction.TransactionDto;
 import com.bankingcustomer.portal.entity.Account;
 import com.bankingcustomer.portal.entity.Transaction;
 import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.security.AuthenticatedUser;
 import com.bankingcustomer.portal.service.AccountService;
+import com.bankingcustomer.portal.service.TransactionExportService;
 import com.bankingcustomer.portal.service.TransactionService;
+import com.bankingcustomer.portal.util.ETags;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -31,14 +37,18 @@ public class TransactionController {
     @Autowired
     private AccountService accountService;
     
+    @Autowired
+    private TransactionExportService transactionExportService;
+    
     @GetMapping("/account/{accountId}")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
     public ResponseEntity<?> getTransactionsByAccount(@PathVariable Long accountId,
-                                                     @RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(required = false) String cursor,
                                                      @RequestParam(defaultValue = "10") int size,
-                                                     Authentication authentication) {
+                                                     Authentication authentication,
+                                                     WebRequest request) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             Account account = accountService.getAccountById(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
             
@@ -48,12 +58,23 @@ public class TransactionController {
                     .body("Error: Access denied");
             }
             
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Transaction> transactions = transactionService.getTransactionsByAccount(account, pageable);
+            // Every ledger entry bumps the account version, and the account was read before the page
+            String etag = ETags.of("history", accountId, account.getVersion(), cursor, size);
+            if (request.checkNotModified(etag)) {
+                return ETags.notModified(etag);
+            }
             
-            Page<TransactionDto> transactionDtos = transactions.map(this::convertToDto);
+            CursorPage<Transaction> transactions = transactionService.getTransactionsByAccount(accountId, cursor, size);
             
-            return ResponseEntity.ok(transactionDtos);
+            CursorPage<TransactionDto> transactionDtos = transactions.map(this::convertToDto);
+            
+            return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ETags.PRIVATE_REVALIDATE)
+                .body(transactionDtos);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Error: Could not retrieve transactions - " + e.getMessage());
@@ -64,12 +85,8 @@ public class TransactionController {
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
     public ResponseEntity<?> getUserTransactions(Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
-            List<Transaction> transactions = transactionService.getTransactionsByUserId(user.getId());
-            
-            List<TransactionDto> transactionDtos = transactions.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            List<TransactionDto> transactionDtos = transactionService.getTransactionDtosByUserId(user.getId());
             
             return ResponseEntity.ok(transactionDtos);
         } catch (Exception e) {
@@ -78,11 +95,26 @@ public class TransactionController {
         }
     }
     
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUserTransactions(@RequestParam(defaultValue = "ndjson") String format,
+                                                                        Authentication authentication) {
+        try {
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            TransactionExportService.Format exportFormat = TransactionExportService.parseFormat(format);
+            
+            return exportResponse(exportFormat, "transactions",
+                out -> transactionExportService.exportForUser(user.getId(), exportFormat, out));
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, "Error: " + e.getMessage());
+        }
+    }
+    
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
     public ResponseEntity<?> getTransactionById(@PathVariable Long id, Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             Transaction transaction = transactionService.getTransactionById(id)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
             
@@ -105,7 +137,7 @@ public class TransactionController {
     public ResponseEntity<?> getTransactionByReference(@PathVariable String referenceNumber, 
                                                       Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             Transaction transaction = transactionService.getTransactionByReferenceNumber(referenceNumber)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
             
@@ -130,7 +162,7 @@ public class TransactionController {
                                                        @RequestParam String endDate,
                                                        Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             Account account = accountService.getAccountById(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
             
@@ -161,10 +193,7 @@ public class TransactionController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getAllTransactions() {
         try {
-            List<Transaction> transactions = transactionService.getAllTransactions();
-            List<TransactionDto> transactionDtos = transactions.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+            List<TransactionDto> transactionDtos = transactionService.getAllTransactionDtos();
             
             return ResponseEntity.ok(transactionDtos);
         } catch (Exception e) {
@@ -173,6 +202,19 @@ public class TransactionController {
         }
     }
     
+    @GetMapping("/all/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAllTransactions(@RequestParam(defaultValue = "ndjson") String format) {
+        try {
+            TransactionExportService.Format exportFormat = TransactionExportService.parseFormat(format);
+            
+            return exportResponse(exportFormat, "all-transactions",
+                out -> transactionExportService.exportAll(exportFormat, out));
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, "Error: " + e.getMessage());
+        }
+    }
+    
     @PostMapping("/{id}/reverse")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> reverseTransaction(@PathVariable Long id,
@@ -186,6 +228,27 @@ public class TransactionController {
         }
     }
     
+    // The body is written on an async request thread after this method returns
+    private ResponseEntity<StreamingResponseBody> exportResponse(TransactionExportService.Format format,
+                                                                 String fileName, StreamingResponseBody body) {
+        boolean csv = format == TransactionExportService.Format.CSV;
+        MediaType contentType = csv
+            ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+            : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+        
+        return ResponseEntity.ok()
+            .contentType(contentType)
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"" + fileName + (csv ? ".csv" : ".ndjson") + "\"")
+            .body(body);
+    }
+    
+    private ResponseEntity<StreamingResponseBody> errorResponse(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+            .contentType(MediaType.TEXT_PLAIN)
+            .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+    
     private TransactionDto convertToDto(Transaction transaction) {
         return new TransactionDto(
             transaction.getId(),
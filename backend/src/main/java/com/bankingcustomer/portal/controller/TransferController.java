@@ -1,22 +1,31 @@
 package com.bankingcustomer.portal.controller;
 
+import com.bankingcustomer.portal.dto.CursorPage;
+import com.bankingcustomer.portal.dto.transfer.TransferBatchReport;
+import com.bankingcustomer.portal.dto.transfer.TransferDto;
 import com.bankingcustomer.portal.dto.transfer.TransferRequest;
-import com.bankingcustomer.portal.entity.Account;
 import com.bankingcustomer.portal.entity.Transfer;
 import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.security.AuthenticatedUser;
 import com.bankingcustomer.portal.service.AccountService;
+import com.bankingcustomer.portal.service.IdempotencyKeyReuseException;
+import com.bankingcustomer.portal.service.TransferBatchService;
+import com.bankingcustomer.portal.service.TransferIdempotencyService;
 import com.bankingcustomer.portal.service.TransferService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 
 @RestController
@@ -30,18 +39,30 @@ public class TransferController {
     @Autowired
     private AccountService accountService;
     
+    @Autowired
+    private TransferBatchService transferBatchService;
+    
+    @Autowired
+    private TransferIdempotencyService transferIdempotencyService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @PostMapping("/execute")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
     public ResponseEntity<?> executeTransfer(@Valid @RequestBody TransferExecutionRequest request,
+                                            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                             Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             
-            // Verify that the from account belongs to the authenticated user (unless admin)
-            Account fromAccount = accountService.getAccountByIban(request.getFromIban())
+            // Verify that the from account belongs to the authenticated user (unless admin). Only the
+            // owner id is read: the transfer loads and locks the account itself, and an instance
+            // loaded here would be returned to it unchanged by the open-in-view session
+            Long ownerId = accountService.getOwnerIdByIban(request.getFromIban())
                 .orElseThrow(() -> new RuntimeException("Source account not found"));
             
-            if (!user.getRole().equals(User.Role.ADMIN) && !fromAccount.getUser().getId().equals(user.getId())) {
+            if (!user.getRole().equals(User.Role.ADMIN) && !ownerId.equals(user.getId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body("Error: Access denied - You can only transfer from your own accounts");
             }
@@ -53,12 +74,18 @@ public class TransferController {
                 request.getToIban(),
                 request.getBeneficiaryName(),
                 request.getDescription(),
-                fromAccount
+                null
             );
             
-            Transfer executedTransfer = transferService.executeTransfer(transfer);
+            // A retried request with the same key gets the original transfer back
+            Transfer executedTransfer = idempotencyKey != null && !idempotencyKey.isBlank()
+                ? transferIdempotencyService.executeTransfer(user.getId(), idempotencyKey, transfer)
+                : transferService.executeTransfer(transfer);
             return ResponseEntity.ok(convertToDto(executedTransfer));
             
+        } catch (IdempotencyKeyReuseException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body("Error: " + e.getMessage());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body("Error: " + e.getMessage());
@@ -68,19 +95,106 @@ public class TransferController {
         }
     }
     
+    @PostMapping("/submit")
+    @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
+    public ResponseEntity<?> submitTransfer(@Valid @RequestBody TransferExecutionRequest request,
+                                           Authentication authentication) {
+        try {
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            
+            // Verify that the from account belongs to the authenticated user (unless admin). Only the
+            // owner id is read: the transfer loads and locks the account itself, and an instance
+            // loaded here would be returned to it unchanged by the open-in-view session
+            Long ownerId = accountService.getOwnerIdByIban(request.getFromIban())
+                .orElseThrow(() -> new IllegalArgumentException("Source account not found"));
+            
+            if (!user.getRole().equals(User.Role.ADMIN) && !ownerId.equals(user.getId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("Error: Access denied - You can only transfer from your own accounts");
+            }
+            
+            Transfer transfer = new Transfer(
+                request.getAmount(),
+                request.getFromIban(),
+                request.getToIban(),
+                request.getBeneficiaryName(),
+                request.getDescription(),
+                null
+            );
+            
+            // Settled in the background, poll /api/transfers/{id} for the final status
+            Transfer pendingTransfer = transferService.submitTransfer(transfer);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(convertToDto(pendingTransfer));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error: Could not submit transfer - " + e.getMessage());
+        }
+    }
+    
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
+    public ResponseEntity<?> executeTransferBatch(HttpServletRequest request, Authentication authentication) {
+        try {
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            
+            // Clients may only debit their own accounts, checked per line against the locked rows
+            Long ownerId = user.getRole().equals(User.Role.ADMIN) ? null : user.getId();
+            
+            // Accepts a JSON array or newline-delimited JSON, read lazily as the chunks are executed
+            try (MappingIterator<TransferExecutionRequest> lines = objectMapper
+                    .readerFor(TransferExecutionRequest.class)
+                    .readValues(request.getInputStream())) {
+                Iterator<Transfer> transfers = new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return lines.hasNext();
+                    }
+                    
+                    @Override
+                    public Transfer next() {
+                        TransferExecutionRequest line = lines.next();
+                        return new Transfer(
+                            line.getAmount(),
+                            line.getFromIban(),
+                            line.getToIban(),
+                            line.getBeneficiaryName(),
+                            line.getDescription(),
+                            null
+                        );
+                    }
+                };
+                
+                TransferBatchReport report = transferBatchService.executeBatch(transfers, ownerId);
+                return ResponseEntity.ok(report);
+            }
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body("Error: Could not read transfer batch - " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error: Could not execute transfer batch - " + e.getMessage());
+        }
+    }
+    
     @GetMapping("/user")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
-    public ResponseEntity<?> getUserTransfers(@RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<?> getUserTransfers(@RequestParam(required = false) String cursor,
                                              @RequestParam(defaultValue = "10") int size,
                                              Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Transfer> transfers = transferService.getTransfersByUserId(user.getId(), pageable);
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            CursorPage<Transfer> transfers = transferService.getTransfersByUserId(user.getId(), cursor, size);
             
-            Page<TransferDto> transferDtos = transfers.map(this::convertToDto);
+            CursorPage<TransferDto> transferDtos = transfers.map(this::convertToDto);
             
             return ResponseEntity.ok(transferDtos);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Error: Could not retrieve transfers - " + e.getMessage());
@@ -91,7 +205,7 @@ public class TransferController {
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN')")
     public ResponseEntity<?> getTransferById(@PathVariable Long id, Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             Transfer transfer = transferService.getTransferById(id)
                 .orElseThrow(() -> new RuntimeException("Transfer not found"));
             
@@ -115,7 +229,7 @@ public class TransferController {
     public ResponseEntity<?> getTransferByReference(@PathVariable String referenceNumber,
                                                    Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             Transfer transfer = transferService.getTransferByReferenceNumber(referenceNumber)
                 .orElseThrow(() -> new RuntimeException("Transfer not found"));
             
@@ -140,7 +254,7 @@ public class TransferController {
                                            @RequestParam String reason,
                                            Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             Transfer transfer = transferService.getTransferById(id)
                 .orElseThrow(() -> new RuntimeException("Transfer not found"));
             
@@ -168,10 +282,7 @@ public class TransferController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getAllTransfers() {
         try {
-            List<Transfer> transfers = transferService.getAllTransfers();
-            List<TransferDto> transferDtos = transfers.stream()
-                .map(this::convertToDto)
-                .collect(java.util.stream.Collectors.toList());
+            List<TransferDto> transferDtos = transferService.getAllTransferDtos();
             
             return ResponseEntity.ok(transferDtos);
         } catch (Exception e) {
@@ -184,10 +295,7 @@ public class TransferController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getPendingTransfers() {
         try {
-            List<Transfer> transfers = transferService.getPendingTransfers();
-            List<TransferDto> transferDtos = transfers.stream()
-                .map(this::convertToDto)
-                .collect(java.util.stream.Collectors.toList());
+            List<TransferDto> transferDtos = transferService.getPendingTransferDtos();
             
             return ResponseEntity.ok(transferDtos);
         } catch (Exception e) {
@@ -224,69 +332,4 @@ public class TransferController {
             this.fromIban = fromIban;
         }
     }
-    
-    public static class TransferDto {
-        private Long id;
-        private java.math.BigDecimal amount;
-        private java.math.BigDecimal transferFee;
-        private String fromIban;
-        private String toIban;
-        private String beneficiaryName;
-        private String description;
-        private String referenceNumber;
-        private String status;
-        private java.time.LocalDateTime createdAt;
-        private java.time.LocalDateTime processedAt;
-        
-        public TransferDto(Long id, java.math.BigDecimal amount, java.math.BigDecimal transferFee,
-                          String fromIban, String toIban, String beneficiaryName,
-                          String description, String referenceNumber, String status,
-                          java.time.LocalDateTime createdAt, java.time.LocalDateTime processedAt) {
-            this.id = id;
-            this.amount = amount;
-            this.transferFee = transferFee;
-            this.fromIban = fromIban;
-            this.toIban = toIban;
-            this.beneficiaryName = beneficiaryName;
-            this.description = description;
-            this.referenceNumber = referenceNumber;
-            this.status = status;
-            this.createdAt = createdAt;
-            this.processedAt = processedAt;
-        }
-        
-        // Getters and setters
-        public Long getId() { return id; }
-        public void setId(Long id) { this.id = id; }
-        
-        public java.math.BigDecimal getAmount() { return amount; }
-        public void setAmount(java.math.BigDecimal amount) { this.amount = amount; }
-        
-        public java.math.BigDecimal getTransferFee() { return transferFee; }
-        public void setTransferFee(java.math.BigDecimal transferFee) { this.transferFee = transferFee; }
-        
-        public String getFromIban() { return fromIban; }
-        public void setFromIban(String fromIban) { this.fromIban = fromIban; }
-        
-        public String getToIban() { return toIban; }
-        public void setToIban(String toIban) { this.toIban = toIban; }
-        
-        public String getBeneficiaryName() { return beneficiaryName; }
-        public void setBeneficiaryName(String beneficiaryName) { this.beneficiaryName = beneficiaryName; }
-        
-        public String getDescription() { return description; }
-        public void setDescription(String description) { this.description = description; }
-        
-        public String getReferenceNumber() { return referenceNumber; }
-        public void setReferenceNumber(String referenceNumber) { this.referenceNumber = referenceNumber; }
-        
-        public String getStatus() { return status; }
-        public void setStatus(String status) { this.status = status; }
-        
-        public java.time.LocalDateTime getCreatedAt() { return createdAt; }
-        public void setCreatedAt(java.time.LocalDateTime createdAt) { this.createdAt = createdAt; }
-        
-        public java.time.LocalDateTime getProcessedAt() { return processedAt; }
-        public void setProcessedAt(java.time.LocalDateTime processedAt) { this.processedAt = processedAt; }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.bankingcustomer.portal.dto.account;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class AccountActivityDto {
+    
+    private LocalDate periodStart;
+    private BigDecimal credits;
+    private BigDecimal debits;
+    private BigDecimal fees;
+    private BigDecimal net;
+    private long transactionCount;
+    private BigDecimal minBalance;
+    private BigDecimal maxBalance;
+    
+    // Constructors
+    public AccountActivityDto() {}
+    
+    public AccountActivityDto(LocalDate periodStart, BigDecimal credits, BigDecimal debits, BigDecimal fees,
+                              long transactionCount, BigDecimal minBalance, BigDecimal maxBalance) {
+        this.periodStart = periodStart;
+        this.credits = credits;
+        this.debits = debits;
+        this.fees = fees;
+        this.net = credits.subtract(debits).subtract(fees);
+        this.transactionCount = transactionCount;
+        this.minBalance = minBalance;
+        this.maxBalance = maxBalance;
+    }
+    
+    // Getters and Setters
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+    
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+    
+    public BigDecimal getCredits() {
+        return credits;
+    }
+    
+    public void setCredits(BigDecimal credits) {
+        this.credits = credits;
+    }
+    
+    public BigDecimal getDebits() {
+        return debits;
+    }
+    
+    public void setDebits(BigDecimal debits) {
+        this.debits = debits;
+    }
+    
+    public BigDecimal getFees() {
+        return fees;
+    }
+    
+    public void setFees(BigDecimal fees) {
+        this.fees = fees;
+    }
+    
+    public BigDecimal getNet() {
+        return net;
+    }
+    
+    public void setNet(BigDecimal net) {
+        this.net = net;
+    }
+    
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+    
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+    
+    public BigDecimal getMinBalance() {
+        return minBalance;
+    }
+    
+    public void setMinBalance(BigDecimal minBalance) {
+        this.minBalance = minBalance;
+    }
+    
+    public BigDecimal getMaxBalance() {
+        return maxBalance;
+    }
+    
+    public void setMaxBalance(BigDecimal maxBalance) {
+        this.maxBalance = maxBalance;
+    }
+}
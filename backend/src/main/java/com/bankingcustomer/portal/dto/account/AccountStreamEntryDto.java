@@ -0,0 +1,44 @@
+package com.bankingcustomer.portal.dto.account;
+
+import com.bankingcustomer.portal.dto.transaction.TransactionDto;
+
+public class AccountStreamEntryDto {
+    
+    private Long userId;
+    private TransactionDto transaction;
+    private BalanceUpdateDto balance;
+    
+    // Constructors
+    public AccountStreamEntryDto() {}
+    
+    public AccountStreamEntryDto(Long userId, TransactionDto transaction, BalanceUpdateDto balance) {
+        this.userId = userId;
+        this.transaction = transaction;
+        this.balance = balance;
+    }
+    
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public TransactionDto getTransaction() {
+        return transaction;
+    }
+    
+    public void setTransaction(TransactionDto transaction) {
+        this.transaction = transaction;
+    }
+    
+    public BalanceUpdateDto getBalance() {
+        return balance;
+    }
+    
+    public void setBalance(BalanceUpdateDto balance) {
+        this.balance = balance;
+    }
+}
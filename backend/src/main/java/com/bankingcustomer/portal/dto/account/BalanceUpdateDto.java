@@ -0,0 +1,44 @@
+package com.bankingcustomer.portal.dto.account;
+
+import java.math.BigDecimal;
+
+public class BalanceUpdateDto {
+    
+    private Long accountId;
+    private String iban;
+    private BigDecimal balance;
+    
+    // Constructors
+    public BalanceUpdateDto() {}
+    
+    public BalanceUpdateDto(Long accountId, String iban, BigDecimal balance) {
+        this.accountId = accountId;
+        this.iban = iban;
+        this.balance = balance;
+    }
+    
+    // Getters and Setters
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public String getIban() {
+        return iban;
+    }
+    
+    public void setIban(String iban) {
+        this.iban = iban;
+    }
+    
+    public BigDecimal getBalance() {
+        return balance;
+    }
+    
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
@@ -0,0 +1,157 @@
+package com.bankingcustomer.portal.dto.admin;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class AdminStatsDto {
+    
+    private long totalUsers;
+    private long totalAccounts;
+    private BigDecimal totalBalance;
+    private Map<String, Totals> accountsByType;
+    private List<DailyTotals> transactionsByDay;
+    private Map<String, Totals> transfersByStatus;
+    private LocalDateTime lastRollupAt;
+    
+    // Constructors
+    public AdminStatsDto() {}
+    
+    // Getters and Setters
+    public long getTotalUsers() {
+        return totalUsers;
+    }
+    
+    public void setTotalUsers(long totalUsers) {
+        this.totalUsers = totalUsers;
+    }
+    
+    public long getTotalAccounts() {
+        return totalAccounts;
+    }
+    
+    public void setTotalAccounts(long totalAccounts) {
+        this.totalAccounts = totalAccounts;
+    }
+    
+    public BigDecimal getTotalBalance() {
+        return totalBalance;
+    }
+    
+    public void setTotalBalance(BigDecimal totalBalance) {
+        this.totalBalance = totalBalance;
+    }
+    
+    public Map<String, Totals> getAccountsByType() {
+        return accountsByType;
+    }
+    
+    public void setAccountsByType(Map<String, Totals> accountsByType) {
+        this.accountsByType = accountsByType;
+    }
+    
+    public List<DailyTotals> getTransactionsByDay() {
+        return transactionsByDay;
+    }
+    
+    public void setTransactionsByDay(List<DailyTotals> transactionsByDay) {
+        this.transactionsByDay = transactionsByDay;
+    }
+    
+    public Map<String, Totals> getTransfersByStatus() {
+        return transfersByStatus;
+    }
+    
+    public void setTransfersByStatus(Map<String, Totals> transfersByStatus) {
+        this.transfersByStatus = transfersByStatus;
+    }
+    
+    public LocalDateTime getLastRollupAt() {
+        return lastRollupAt;
+    }
+    
+    public void setLastRollupAt(LocalDateTime lastRollupAt) {
+        this.lastRollupAt = lastRollupAt;
+    }
+    
+    /**
+     * Number of rows and the sum of their amounts (balances for accounts).
+     */
+    public static class Totals {
+        private long count;
+        private BigDecimal amount;
+        
+        public Totals() {}
+        
+        public Totals(long count, BigDecimal amount) {
+            this.count = count;
+            this.amount = amount;
+        }
+        
+        public long getCount() {
+            return count;
+        }
+        
+        public void setCount(long count) {
+            this.count = count;
+        }
+        
+        public BigDecimal getAmount() {
+            return amount;
+        }
+        
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+    }
+    
+    public static class DailyTotals {
+        private LocalDate date;
+        private String transactionType;
+        private long count;
+        private BigDecimal volume;
+        
+        public DailyTotals() {}
+        
+        public DailyTotals(LocalDate date, String transactionType, long count, BigDecimal volume) {
+            this.date = date;
+            this.transactionType = transactionType;
+            this.count = count;
+            this.volume = volume;
+        }
+        
+        public LocalDate getDate() {
+            return date;
+        }
+        
+        public void setDate(LocalDate date) {
+            this.date = date;
+        }
+        
+        public String getTransactionType() {
+            return transactionType;
+        }
+        
+        public void setTransactionType(String transactionType) {
+            this.transactionType = transactionType;
+        }
+        
+        public long getCount() {
+            return count;
+        }
+        
+        public void setCount(long count) {
+            this.count = count;
+        }
+        
+        public BigDecimal getVolume() {
+            return volume;
+        }
+        
+        public void setVolume(BigDecimal volume) {
+            this.volume = volume;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.bankingcustomer.portal.dto.transfer;
+
+public class TransferBatchLineResult {
+    
+    private int line;
+    private String status;
+    private Long transferId;
+    private String referenceNumber;
+    private String error;
+    
+    // Constructors
+    public TransferBatchLineResult() {}
+    
+    public TransferBatchLineResult(int line, String status, Long transferId, String referenceNumber, String error) {
+        this.line = line;
+        this.status = status;
+        this.transferId = transferId;
+        this.referenceNumber = referenceNumber;
+        this.error = error;
+    }
+    
+    public static TransferBatchLineResult completed(int line, Long transferId, String referenceNumber) {
+        return new TransferBatchLineResult(line, "COMPLETED", transferId, referenceNumber, null);
+    }
+    
+    public static TransferBatchLineResult failed(int line, String error) {
+        return new TransferBatchLineResult(line, "FAILED", null, null, error);
+    }
+    
+    // Getters and Setters
+    public int getLine() {
+        return line;
+    }
+    
+    public void setLine(int line) {
+        this.line = line;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public Long getTransferId() {
+        return transferId;
+    }
+    
+    public void setTransferId(Long transferId) {
+        this.transferId = transferId;
+    }
+    
+    public String getReferenceNumber() {
+        return referenceNumber;
+    }
+    
+    public void setReferenceNumber(String referenceNumber) {
+        this.referenceNumber = referenceNumber;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,69 @@
+package com.bankingcustomer.portal.dto.transfer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TransferBatchReport {
+    
+    private int total;
+    private int completed;
+    private int failed;
+    private String error;
+    private List<TransferBatchLineResult> results = new ArrayList<>();
+    
+    // Constructors
+    public TransferBatchReport() {}
+    
+    public void addResults(List<TransferBatchLineResult> lineResults) {
+        for (TransferBatchLineResult result : lineResults) {
+            total++;
+            if ("COMPLETED".equals(result.getStatus())) {
+                completed++;
+            } else {
+                failed++;
+            }
+            results.add(result);
+        }
+    }
+    
+    // Getters and Setters
+    public int getTotal() {
+        return total;
+    }
+    
+    public void setTotal(int total) {
+        this.total = total;
+    }
+    
+    public int getCompleted() {
+        return completed;
+    }
+    
+    public void setCompleted(int completed) {
+        this.completed = completed;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    public List<TransferBatchLineResult> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<TransferBatchLineResult> results) {
+        this.results = results;
+    }
+}
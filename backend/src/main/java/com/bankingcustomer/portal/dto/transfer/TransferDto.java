@@ -0,0 +1,127 @@
+package com.bankingcustomer.portal.dto.transfer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class TransferDto {
+    
+    private Long id;
+    private BigDecimal amount;
+    private BigDecimal transferFee;
+    private String fromIban;
+    private String toIban;
+    private String beneficiaryName;
+    private String description;
+    private String referenceNumber;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime processedAt;
+    
+    // Constructors
+    public TransferDto() {}
+    
+    public TransferDto(Long id, BigDecimal amount, BigDecimal transferFee, String fromIban, String toIban,
+                       String beneficiaryName, String description, String referenceNumber, String status,
+                       LocalDateTime createdAt, LocalDateTime processedAt) {
+        this.id = id;
+        this.amount = amount;
+        this.transferFee = transferFee;
+        this.fromIban = fromIban;
+        this.toIban = toIban;
+        this.beneficiaryName = beneficiaryName;
+        this.description = description;
+        this.referenceNumber = referenceNumber;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.processedAt = processedAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    
+    public BigDecimal getTransferFee() {
+        return transferFee;
+    }
+    
+    public void setTransferFee(BigDecimal transferFee) {
+        this.transferFee = transferFee;
+    }
+    
+    public String getFromIban() {
+        return fromIban;
+    }
+    
+    public void setFromIban(String fromIban) {
+        this.fromIban = fromIban;
+    }
+    
+    public String getToIban() {
+        return toIban;
+    }
+    
+    public void setToIban(String toIban) {
+        this.toIban = toIban;
+    }
+    
+    public String getBeneficiaryName() {
+        return beneficiaryName;
+    }
+    
+    public void setBeneficiaryName(String beneficiaryName) {
+        this.beneficiaryName = beneficiaryName;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public String getReferenceNumber() {
+        return referenceNumber;
+    }
+    
+    public void setReferenceNumber(String referenceNumber) {
+        this.referenceNumber = referenceNumber;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+    
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+}
\ No newline at end of file
@@ -14,7 +14,8 @@ import java.util.Set;
 public class Account {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_seq")
+    @SequenceGenerator(name = "accounts_seq", sequenceName = "accounts_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "IBAN is required")
@@ -42,6 +43,10 @@ public class Account {
     @Column(name = "is_active")
     private Boolean isActive = true;
     
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0")
+    private Long version;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -135,6 +140,14 @@ public class Account {
         this.isActive = isActive;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public User getUser() {
         return user;
     }
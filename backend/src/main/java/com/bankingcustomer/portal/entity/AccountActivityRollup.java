@@ -0,0 +1,179 @@
+package com.bankingcustomer.portal.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Ledger activity of one account over one day or one month. Rows are only ever written by
+ * bulk SQL (incremental merges and backfills), never through the persistence context.
+ */
+@Entity
+@Table(name = "account_activity_rollups")
+public class AccountActivityRollup {
+    
+    @EmbeddedId
+    private Key id;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal credits = BigDecimal.ZERO;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal debits = BigDecimal.ZERO;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal fees = BigDecimal.ZERO;
+    
+    @Column(name = "entry_count", nullable = false)
+    private long entryCount;
+    
+    @Column(name = "min_balance", precision = 19, scale = 2)
+    private BigDecimal minBalance;
+    
+    @Column(name = "max_balance", precision = 19, scale = 2)
+    private BigDecimal maxBalance;
+    
+    // Constructors
+    public AccountActivityRollup() {}
+    
+    public AccountActivityRollup(Key id) {
+        this.id = id;
+    }
+    
+    /**
+     * Folds another set of activity for the same period into this one.
+     */
+    public void add(BigDecimal credits, BigDecimal debits, BigDecimal fees, long entryCount,
+                    BigDecimal minBalance, BigDecimal maxBalance) {
+        this.credits = this.credits.add(credits);
+        this.debits = this.debits.add(debits);
+        this.fees = this.fees.add(fees);
+        this.entryCount += entryCount;
+        if (minBalance != null && (this.minBalance == null || minBalance.compareTo(this.minBalance) < 0)) {
+            this.minBalance = minBalance;
+        }
+        if (maxBalance != null && (this.maxBalance == null || maxBalance.compareTo(this.maxBalance) > 0)) {
+            this.maxBalance = maxBalance;
+        }
+    }
+    
+    // Getters and Setters
+    public Key getId() {
+        return id;
+    }
+    
+    public void setId(Key id) {
+        this.id = id;
+    }
+    
+    public BigDecimal getCredits() {
+        return credits;
+    }
+    
+    public void setCredits(BigDecimal credits) {
+        this.credits = credits;
+    }
+    
+    public BigDecimal getDebits() {
+        return debits;
+    }
+    
+    public void setDebits(BigDecimal debits) {
+        this.debits = debits;
+    }
+    
+    public BigDecimal getFees() {
+        return fees;
+    }
+    
+    public void setFees(BigDecimal fees) {
+        this.fees = fees;
+    }
+    
+    public long getEntryCount() {
+        return entryCount;
+    }
+    
+    public void setEntryCount(long entryCount) {
+        this.entryCount = entryCount;
+    }
+    
+    public BigDecimal getMinBalance() {
+        return minBalance;
+    }
+    
+    public void setMinBalance(BigDecimal minBalance) {
+        this.minBalance = minBalance;
+    }
+    
+    public BigDecimal getMaxBalance() {
+        return maxBalance;
+    }
+    
+    public void setMaxBalance(BigDecimal maxBalance) {
+        this.maxBalance = maxBalance;
+    }
+    
+    public enum Granularity {
+        DAY, MONTH;
+        
+        public LocalDate periodStart(LocalDate date) {
+            return this == MONTH ? date.withDayOfMonth(1) : date;
+        }
+    }
+    
+    @Embeddable
+    public static class Key implements Serializable {
+        
+        @Column(name = "account_id", nullable = false)
+        private Long accountId;
+        
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false, length = 8)
+        private Granularity granularity;
+        
+        @Column(name = "period_start", nullable = false)
+        private LocalDate periodStart;
+        
+        public Key() {}
+        
+        public Key(Long accountId, Granularity granularity, LocalDate periodStart) {
+            this.accountId = accountId;
+            this.granularity = granularity;
+            this.periodStart = periodStart;
+        }
+        
+        public Long getAccountId() {
+            return accountId;
+        }
+        
+        public Granularity getGranularity() {
+            return granularity;
+        }
+        
+        public LocalDate getPeriodStart() {
+            return periodStart;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(accountId, key.accountId) && granularity == key.granularity
+                    && Objects.equals(periodStart, key.periodStart);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, granularity, periodStart);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.bankingcustomer.portal.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Balance of an account as of a point in time, i.e. the sum of every ledger entry dated at
+ * or before asOf applied to the opening balance. Historical balances are rebuilt from the
+ * nearest snapshot instead of from the first transaction.
+ */
+@Entity
+@Table(name = "balance_snapshots",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "as_of"}))
+public class BalanceSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_snapshots_seq")
+    @SequenceGenerator(name = "balance_snapshots_seq", sequenceName = "balance_snapshots_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+    
+    // Highest ledger entry id folded into the balance, kept for auditing
+    @Column(name = "last_transaction_id")
+    private Long lastTransactionId;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public BalanceSnapshot() {}
+    
+    public BalanceSnapshot(Long accountId, LocalDateTime asOf, Long lastTransactionId, BigDecimal balance) {
+        this.accountId = accountId;
+        this.asOf = asOf;
+        this.lastTransactionId = lastTransactionId;
+        this.balance = balance;
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+    
+    public void setAsOf(LocalDateTime asOf) {
+        this.asOf = asOf;
+    }
+    
+    public Long getLastTransactionId() {
+        return lastTransactionId;
+    }
+    
+    public void setLastTransactionId(Long lastTransactionId) {
+        this.lastTransactionId = lastTransactionId;
+    }
+    
+    public BigDecimal getBalance() {
+        return balance;
+    }
+    
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
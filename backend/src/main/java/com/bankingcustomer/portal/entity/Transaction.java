@@ -1,5 +1,6 @@
 package com.bankingcustomer.portal.entity;
 
+import com.bankingcustomer.portal.util.ReferenceNumbers;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 
@@ -11,7 +12,8 @@ import java.time.LocalDateTime;
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Amount is required")
@@ -62,14 +64,10 @@ public class Transaction {
             transactionDate = LocalDateTime.now();
         }
         if (referenceNumber == null) {
-            referenceNumber = generateReferenceNumber();
+            referenceNumber = ReferenceNumbers.next("TXN");
         }
     }
     
-    private String generateReferenceNumber() {
-        return "TXN" + System.currentTimeMillis() + "_" + (int)(Math.random() * 1000);
-    }
-    
     // Getters and Setters
     public Long getId() {
         return id;
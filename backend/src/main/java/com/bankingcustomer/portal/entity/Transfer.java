@@ -1,5 +1,6 @@
 package com.bankingcustomer.portal.entity;
 
+import com.bankingcustomer.portal.util.ReferenceNumbers;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 
@@ -12,7 +13,8 @@ import java.util.Set;
 public class Transfer {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transfers_seq")
+    @SequenceGenerator(name = "transfers_seq", sequenceName = "transfers_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Amount is required")
@@ -75,14 +77,10 @@ public class Transfer {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         if (referenceNumber == null) {
-            referenceNumber = generateReferenceNumber();
+            referenceNumber = ReferenceNumbers.next("TRF");
         }
     }
     
-    private String generateReferenceNumber() {
-        return "TRF" + System.currentTimeMillis() + "_" + (int)(Math.random() * 1000);
-    }
-    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -0,0 +1,33 @@
+package com.bankingcustomer.portal.event;
+
+import com.bankingcustomer.portal.entity.Account;
+
+import java.math.BigDecimal;
+
+/**
+ * An account was created, with the opening balance it was created with (no ledger entry is written for it).
+ */
+public class AccountOpenedEvent {
+    
+    private final Long accountId;
+    private final Account.AccountType accountType;
+    private final BigDecimal openingBalance;
+    
+    public AccountOpenedEvent(Long accountId, Account.AccountType accountType, BigDecimal openingBalance) {
+        this.accountId = accountId;
+        this.accountType = accountType;
+        this.openingBalance = openingBalance;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public Account.AccountType getAccountType() {
+        return accountType;
+    }
+    
+    public BigDecimal getOpeningBalance() {
+        return openingBalance;
+    }
+}
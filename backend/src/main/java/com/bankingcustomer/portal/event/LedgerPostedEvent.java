@@ -0,0 +1,94 @@
+package com.bankingcustomer.portal.event;
+
+import com.bankingcustomer.portal.dto.transaction.TransactionDto;
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Ledger entries written by one transaction. Entries are copied out of the entities when the
+ * event is published, so listeners running after commit never touch a closed session.
+ */
+public class LedgerPostedEvent {
+    
+    private final List<Entry> entries;
+    
+    public LedgerPostedEvent(List<Entry> entries) {
+        this.entries = entries;
+    }
+    
+    public List<Entry> getEntries() {
+        return entries;
+    }
+    
+    public static class Entry {
+        private final Long accountId;
+        private final Long userId;
+        private final Account.AccountType accountType;
+        private final Transaction.TransactionType transactionType;
+        private final LocalDateTime transactionDate;
+        private final BigDecimal amount;
+        private final BigDecimal fee;
+        private final BigDecimal balanceDelta;
+        private final BigDecimal balanceAfter;
+        private final TransactionDto transaction;
+        
+        public Entry(Long accountId, Long userId, Account.AccountType accountType, Transaction.TransactionType transactionType,
+                     LocalDateTime transactionDate, BigDecimal amount, BigDecimal fee, BigDecimal balanceDelta,
+                     BigDecimal balanceAfter, TransactionDto transaction) {
+            this.accountId = accountId;
+            this.userId = userId;
+            this.accountType = accountType;
+            this.transactionType = transactionType;
+            this.transactionDate = transactionDate;
+            this.amount = amount;
+            this.fee = fee;
+            this.balanceDelta = balanceDelta;
+            this.balanceAfter = balanceAfter;
+            this.transaction = transaction;
+        }
+        
+        public Long getAccountId() {
+            return accountId;
+        }
+        
+        public Long getUserId() {
+            return userId;
+        }
+        
+        public Account.AccountType getAccountType() {
+            return accountType;
+        }
+        
+        public Transaction.TransactionType getTransactionType() {
+            return transactionType;
+        }
+        
+        public LocalDateTime getTransactionDate() {
+            return transactionDate;
+        }
+        
+        public BigDecimal getAmount() {
+            return amount;
+        }
+        
+        public BigDecimal getFee() {
+            return fee;
+        }
+        
+        public BigDecimal getBalanceDelta() {
+            return balanceDelta;
+        }
+        
+        public BigDecimal getBalanceAfter() {
+            return balanceAfter;
+        }
+        
+        public TransactionDto getTransaction() {
+            return transaction;
+        }
+    }
+}
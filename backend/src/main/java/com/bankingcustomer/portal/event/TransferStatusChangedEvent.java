@@ -0,0 +1,40 @@
+package com.bankingcustomer.portal.event;
+
+import com.bankingcustomer.portal.entity.Transfer;
+
+import java.math.BigDecimal;
+
+/**
+ * A transfer was stored with a new status. previousStatus is null for newly created transfers.
+ */
+public class TransferStatusChangedEvent {
+    
+    private final Long transferId;
+    private final Transfer.TransferStatus previousStatus;
+    private final Transfer.TransferStatus status;
+    private final BigDecimal amount;
+    
+    public TransferStatusChangedEvent(Long transferId, Transfer.TransferStatus previousStatus,
+                                      Transfer.TransferStatus status, BigDecimal amount) {
+        this.transferId = transferId;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.amount = amount;
+    }
+    
+    public Long getTransferId() {
+        return transferId;
+    }
+    
+    public Transfer.TransferStatus getPreviousStatus() {
+        return previousStatus;
+    }
+    
+    public Transfer.TransferStatus getStatus() {
+        return status;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+}
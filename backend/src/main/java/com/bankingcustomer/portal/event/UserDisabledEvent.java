@@ -0,0 +1,18 @@
+package com.bankingcustomer.portal.event;
+
+/**
+ * A user was disabled, deleted or given another role, tokens issued to it so far must no longer
+ * be accepted.
+ */
+public class UserDisabledEvent {
+    
+    private final Long userId;
+    
+    public UserDisabledEvent(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,17 @@
+package com.bankingcustomer.portal.event;
+
+/**
+ * A user was created.
+ */
+public class UserRegisteredEvent {
+    
+    private final Long userId;
+    
+    public UserRegisteredEvent(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+}
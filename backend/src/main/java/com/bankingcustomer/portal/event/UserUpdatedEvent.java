@@ -0,0 +1,17 @@
+package com.bankingcustomer.portal.event;
+
+/**
+ * A user's profile, password, role or enabled flag changed.
+ */
+public class UserUpdatedEvent {
+    
+    private final Long userId;
+    
+    public UserUpdatedEvent(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,23 @@
+package com.bankingcustomer.portal.repository;
+
+import com.bankingcustomer.portal.entity.AccountActivityRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AccountActivityRollupRepository
+        extends JpaRepository<AccountActivityRollup, AccountActivityRollup.Key>, AccountActivityRollupRepositoryCustom {
+    
+    // Range seek on the primary key
+    @Query("SELECT r FROM AccountActivityRollup r WHERE r.id.accountId = :accountId AND r.id.granularity = :granularity " +
+           "AND r.id.periodStart BETWEEN :from AND :to ORDER BY r.id.periodStart")
+    List<AccountActivityRollup> findPeriods(@Param("accountId") Long accountId,
+                                            @Param("granularity") AccountActivityRollup.Granularity granularity,
+                                            @Param("from") LocalDate from,
+                                            @Param("to") LocalDate to);
+}
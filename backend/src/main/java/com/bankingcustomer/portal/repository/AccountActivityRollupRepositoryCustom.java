@@ -0,0 +1,22 @@
+package com.bankingcustomer.portal.repository;
+
+import com.bankingcustomer.portal.entity.AccountActivityRollup;
+
+import java.util.Collection;
+
+/**
+ * Bulk writes of activity rollups, which are maintained by SQL rather than by dirty checking.
+ */
+public interface AccountActivityRollupRepositoryCustom {
+    
+    /**
+     * Adds each delta to the stored row for its period, creating missing rows, in one batch.
+     */
+    void mergeAll(Collection<AccountActivityRollup> deltas);
+    
+    /**
+     * Recomputes every rollup of the accounts in [fromAccountId, toAccountId] from their ledger
+     * entries and returns the number of rows written.
+     */
+    int rebuild(long fromAccountId, long toAccountId);
+}
@@ -0,0 +1,78 @@
+package com.bankingcustomer.portal.repository;
+
+import com.bankingcustomer.portal.entity.AccountActivityRollup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class AccountActivityRollupRepositoryImpl implements AccountActivityRollupRepositoryCustom {
+    
+    // MERGE rather than ON CONFLICT so the same statement runs on PostgreSQL 15 and on H2
+    private static final String MERGE_DELTA =
+        "MERGE INTO account_activity_rollups r " +
+        "USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(8)), CAST(? AS DATE), CAST(? AS NUMERIC(19, 2)), " +
+        "CAST(? AS NUMERIC(19, 2)), CAST(? AS NUMERIC(19, 2)), CAST(? AS BIGINT), CAST(? AS NUMERIC(19, 2)), " +
+        "CAST(? AS NUMERIC(19, 2)))) " +
+        "AS d (account_id, granularity, period_start, credits, debits, fees, entry_count, min_balance, max_balance) " +
+        "ON r.account_id = d.account_id AND r.granularity = d.granularity AND r.period_start = d.period_start " +
+        "WHEN MATCHED THEN UPDATE SET credits = r.credits + d.credits, debits = r.debits + d.debits, " +
+        "fees = r.fees + d.fees, entry_count = r.entry_count + d.entry_count, " +
+        "min_balance = LEAST(COALESCE(r.min_balance, d.min_balance), COALESCE(d.min_balance, r.min_balance)), " +
+        "max_balance = GREATEST(COALESCE(r.max_balance, d.max_balance), COALESCE(d.max_balance, r.max_balance)) " +
+        "WHEN NOT MATCHED THEN INSERT (account_id, granularity, period_start, credits, debits, fees, entry_count, " +
+        "min_balance, max_balance) VALUES (d.account_id, d.granularity, d.period_start, d.credits, d.debits, d.fees, " +
+        "d.entry_count, d.min_balance, d.max_balance)";
+    
+    private static final String DELETE_RANGE =
+        "DELETE FROM account_activity_rollups WHERE account_id BETWEEN ? AND ?";
+    
+    // Same classification as AccountActivityRollupWriter.onLedgerPosted
+    private static final String INSERT_DAYS =
+        "INSERT INTO account_activity_rollups (account_id, granularity, period_start, credits, debits, fees, " +
+        "entry_count, min_balance, max_balance) " +
+        "SELECT account_id, 'DAY', CAST(transaction_date AS DATE), " +
+        "COALESCE(SUM(CASE WHEN transaction_type IN ('CREDIT', 'TRANSFER_IN') THEN amount END), 0), " +
+        "COALESCE(SUM(CASE WHEN transaction_type IN ('DEBIT', 'TRANSFER_OUT') THEN amount END), 0), " +
+        "COALESCE(SUM(CASE WHEN transaction_type = 'FEE' THEN amount " +
+        "WHEN transaction_type IN ('DEBIT', 'TRANSFER_OUT') THEN COALESCE(fee, 0) END), 0), " +
+        "COUNT(*), MIN(balance_after), MAX(balance_after) " +
+        "FROM transactions WHERE account_id BETWEEN ? AND ? " +
+        "GROUP BY account_id, CAST(transaction_date AS DATE)";
+    
+    // Months are folded from the freshly written days rather than from the ledger again
+    private static final String INSERT_MONTHS =
+        "INSERT INTO account_activity_rollups (account_id, granularity, period_start, credits, debits, fees, " +
+        "entry_count, min_balance, max_balance) " +
+        "SELECT account_id, 'MONTH', CAST(DATE_TRUNC('month', period_start) AS DATE), SUM(credits), SUM(debits), " +
+        "SUM(fees), SUM(entry_count), MIN(min_balance), MAX(max_balance) " +
+        "FROM account_activity_rollups WHERE granularity = 'DAY' AND account_id BETWEEN ? AND ? " +
+        "GROUP BY account_id, CAST(DATE_TRUNC('month', period_start) AS DATE)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void mergeAll(Collection<AccountActivityRollup> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (AccountActivityRollup delta : deltas) {
+            rows.add(new Object[] {
+                delta.getId().getAccountId(), delta.getId().getGranularity().name(), Date.valueOf(delta.getId().getPeriodStart()),
+                delta.getCredits(), delta.getDebits(), delta.getFees(), delta.getEntryCount(),
+                delta.getMinBalance(), delta.getMaxBalance()
+            });
+        }
+        jdbcTemplate.batchUpdate(MERGE_DELTA, rows);
+    }
+    
+    @Override
+    public int rebuild(long fromAccountId, long toAccountId) {
+        jdbcTemplate.update(DELETE_RANGE, fromAccountId, toAccountId);
+        int days = jdbcTemplate.update(INSERT_DAYS, fromAccountId, toAccountId);
+        int months = jdbcTemplate.update(INSERT_MONTHS, fromAccountId, toAccountId);
+        return days + months;
+    }
+}
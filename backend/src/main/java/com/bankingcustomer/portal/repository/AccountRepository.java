@@ -2,11 +2,20 @@ package com.bankingcustomer.portal.repository;
 
 import com.bankingcustomer.portal.entity.Account;
 import com.bankingcustomer.portal.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,11 +24,77 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     
     Optional<Account> findByIban(String iban);
     
+    @Query("SELECT a.id FROM Account a WHERE a.iban = :iban")
+    Optional<Long> findIdByIban(@Param("iban") String iban);
+    
+    @Query("SELECT a.user.id FROM Account a WHERE a.iban = :iban")
+    Optional<Long> findOwnerIdByIban(@Param("iban") String iban);
+    
+    @Query("SELECT a FROM Account a WHERE a.iban IN :ibans ORDER BY a.iban")
+    List<Account> findByIbanIn(@Param("ibans") Collection<String> ibans);
+    
+    // Rows are locked in IBAN order so concurrent transfers never wait on each other in a cycle
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.iban IN :ibans ORDER BY a.iban")
+    List<Account> findByIbanInForUpdate(@Param("ibans") Collection<String> ibans);
+    
+    // Applies a signed delta in place; matches no row when the result would be negative
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :delta, a.version = a.version + 1, a.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE a.id = :id AND a.balance + :delta >= 0")
+    int applyBalanceDelta(@Param("id") Long id, @Param("delta") BigDecimal delta);
+    
+    @Query("SELECT a.balance FROM Account a WHERE a.id = :id")
+    Optional<BigDecimal> findBalanceById(@Param("id") Long id);
+    
+    /**
+     * Atomically adds the delta to the balance and returns the new balance, or empty if the
+     * account does not exist or the balance would go negative. The row stays locked by the
+     * update until commit, so the follow-up read sees this transaction's result.
+     */
+    default Optional<BigDecimal> addToBalance(Long id, BigDecimal delta) {
+        if (applyBalanceDelta(id, delta) == 0) {
+            return Optional.empty();
+        }
+        return findBalanceById(id);
+    }
+    
+    /**
+     * Balance of an account together with the net movement of its ledger entries dated after
+     * the given instant, read in one statement so both sides see the same committed state.
+     */
+    interface LedgerCheck {
+        BigDecimal getBalance();
+        
+        BigDecimal getLedgerDelta();
+    }
+    
+    @Query("SELECT a.balance AS balance, " +
+           "(SELECT COALESCE(SUM(" + TransactionRepository.BALANCE_DELTA + "), 0) FROM Transaction t " +
+           "WHERE t.account.id = a.id AND t.transactionDate > :after) AS ledgerDelta " +
+           "FROM Account a WHERE a.id = :id")
+    Optional<LedgerCheck> checkLedgerSince(@Param("id") Long id, @Param("after") LocalDateTime after);
+    
+    /**
+     * Id and version of an account, enough to tell whether its representation changed.
+     */
+    interface AccountVersion {
+        Long getId();
+        
+        Long getVersion();
+    }
+    
+    @Query("SELECT a.id AS id, a.version AS version FROM Account a " +
+           "WHERE a.user.id = :userId AND a.isActive = true ORDER BY a.id")
+    List<AccountVersion> findActiveVersionsByUserId(@Param("userId") Long userId);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Account> findByUser(User user);
     
     List<Account> findByUserId(Long userId);
     
     @Query("SELECT a FROM Account a WHERE a.user.id = :userId AND a.isActive = true")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Account> findActiveAccountsByUserId(@Param("userId") Long userId);
     
     @Query("SELECT a FROM Account a WHERE a.accountType = :accountType")
@@ -32,4 +107,28 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     
     @Query("SELECT COUNT(a) FROM Account a WHERE a.user.id = :userId")
     long countAccountsByUserId(@Param("userId") Long userId);
+    
+    // Account id bounds, used to partition bulk jobs by id range
+    @Query("SELECT MIN(a.id) FROM Account a")
+    Optional<Long> findMinId();
+    
+    @Query("SELECT MAX(a.id) FROM Account a")
+    Optional<Long> findMaxId();
+    
+    // Locks every account of an id range until commit; native so no entities are loaded
+    @Query(value = "SELECT id FROM accounts WHERE id BETWEEN :fromId AND :toId ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+    
+    interface AccountTypeTotals {
+        Account.AccountType getAccountType();
+        
+        long getEntries();
+        
+        BigDecimal getBalance();
+    }
+    
+    // Admin stats rollup
+    @Query("SELECT a.accountType AS accountType, COUNT(a) AS entries, COALESCE(SUM(a.balance), 0) AS balance " +
+           "FROM Account a GROUP BY a.accountType")
+    List<AccountTypeTotals> sumBalancesByAccountType();
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.bankingcustomer.portal.repository;
+
+import com.bankingcustomer.portal.entity.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+    
+    Optional<BalanceSnapshot> findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(Long accountId, LocalDateTime asOf);
+    
+    Optional<BalanceSnapshot> findFirstByAccountIdOrderByAsOfDesc(Long accountId);
+    
+    // Cutoff of the last snapshot run, the next run only looks at entries dated after it
+    @Query("SELECT MAX(s.asOf) FROM BalanceSnapshot s")
+    Optional<LocalDateTime> findLatestAsOf();
+}
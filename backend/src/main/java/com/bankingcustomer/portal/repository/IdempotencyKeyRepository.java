@@ -0,0 +1,24 @@
+package com.bankingcustomer.portal.repository;
+
+import com.bankingcustomer.portal.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+    
+    Optional<IdempotencyKey> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+    
+    // Bounded so a large backlog of expired keys is removed in short transactions
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE id IN " +
+                   "(SELECT id FROM idempotency_keys WHERE expires_at < :now ORDER BY expires_at LIMIT :limit)",
+           nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
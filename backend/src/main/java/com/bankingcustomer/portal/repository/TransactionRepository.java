@@ -1,28 +1,73 @@
 package com.bankingcustomer.portal.repository;
 
+import com.bankingcustomer.portal.dto.transaction.TransactionDto;
 import com.bankingcustomer.portal.entity.Transaction;
 import com.bankingcustomer.portal.entity.Account;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     
+    // Everything TransactionDto needs in one statement, without loading entities or their accounts
+    String TRANSACTION_DTO_SELECT =
+        "SELECT new com.bankingcustomer.portal.dto.transaction.TransactionDto(" +
+        "t.id, t.amount, CAST(t.transactionType AS String), t.transactionDate, t.fee, " +
+        "t.referenceNumber, t.description, t.balanceAfter, a.iban) " +
+        "FROM Transaction t JOIN t.account a ";
+    
+    // Signed balance movement of an entry, the query-side mirror of TransactionService.balanceDelta
+    String BALANCE_DELTA =
+        "CASE WHEN t.transactionType IN (CREDIT, TRANSFER_IN) THEN t.amount " +
+        "WHEN t.transactionType IN (DEBIT, TRANSFER_OUT) THEN -(t.amount + COALESCE(t.fee, 0)) " +
+        "WHEN t.transactionType = FEE THEN -t.amount " +
+        "ELSE 0 END";
+    
+    /**
+     * Net balance movement of a range of ledger entries and the highest entry id in it.
+     */
+    interface LedgerWindow {
+        BigDecimal getDelta();
+        
+        Long getLastTransactionId();
+    }
+    
+    // Entity listings load read-only, so no dirty-checking snapshots are kept even when the
+    // caller's transaction is read-write
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Transaction> findByAccount(Account account);
     
-    Page<Transaction> findByAccountOrderByTransactionDateDesc(Account account, Pageable pageable);
+    // Keyset pages over (transaction_date, id), served by idx_transactions_account_date
+    @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId ORDER BY t.transactionDate DESC, t.id DESC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Transaction> findPageByAccountId(@Param("accountId") Long accountId, Pageable pageable);
     
+    @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId " +
+           "AND (t.transactionDate, t.id) < (:transactionDate, :id) ORDER BY t.transactionDate DESC, t.id DESC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Transaction> findPageByAccountIdAfter(@Param("accountId") Long accountId,
+                                               @Param("transactionDate") LocalDateTime transactionDate,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Transaction> findByAccountIdOrderByTransactionDateDesc(Long accountId);
     
     @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId AND t.transactionDate BETWEEN :startDate AND :endDate ORDER BY t.transactionDate DESC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Transaction> findByAccountIdAndDateRange(@Param("accountId") Long accountId, 
                                                  @Param("startDate") LocalDateTime startDate, 
                                                  @Param("endDate") LocalDateTime endDate);
@@ -32,6 +77,74 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     
     Optional<Transaction> findByReferenceNumber(String referenceNumber);
     
+    // Account fetched with the row for ownership checks (the owner id is the account's foreign key)
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.account WHERE t.id = :id")
+    Optional<Transaction> findWithAccountById(@Param("id") Long id);
+    
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.account WHERE t.referenceNumber = :referenceNumber")
+    Optional<Transaction> findWithAccountByReferenceNumber(@Param("referenceNumber") String referenceNumber);
+    
+    @Query(TRANSACTION_DTO_SELECT + "WHERE a.user.id = :userId ORDER BY t.transactionDate DESC")
+    List<TransactionDto> findDtosByUserId(@Param("userId") Long userId);
+    
+    @Query(TRANSACTION_DTO_SELECT)
+    List<TransactionDto> findAllDtos();
+    
+    // Cursor-backed streams for exports; the fetch size keeps the driver from buffering the whole result
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(TRANSACTION_DTO_SELECT + "ORDER BY t.id")
+    Stream<TransactionDto> streamAllDtos();
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(TRANSACTION_DTO_SELECT + "WHERE a.user.id = :userId ORDER BY t.transactionDate DESC")
+    Stream<TransactionDto> streamDtosByUserId(@Param("userId") Long userId);
+    
+    // Ledger replay for balance snapshots, ranges are (from, to] on transaction_date
+    @Query("SELECT COALESCE(SUM(" + BALANCE_DELTA + "), 0) AS delta, MAX(t.id) AS lastTransactionId " +
+           "FROM Transaction t WHERE t.account.id = :accountId AND t.transactionDate > :from AND t.transactionDate <= :to")
+    LedgerWindow sumBalanceDelta(@Param("accountId") Long accountId,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to);
+    
+    @Query("SELECT COALESCE(SUM(" + BALANCE_DELTA + "), 0) AS delta, MAX(t.id) AS lastTransactionId " +
+           "FROM Transaction t WHERE t.account.id = :accountId AND t.transactionDate <= :to")
+    LedgerWindow sumBalanceDeltaUpTo(@Param("accountId") Long accountId, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT COALESCE(SUM(" + BALANCE_DELTA + "), 0) AS delta, MAX(t.id) AS lastTransactionId " +
+           "FROM Transaction t WHERE t.account.id = :accountId")
+    LedgerWindow sumBalanceDeltaByAccountId(@Param("accountId") Long accountId);
+    
+    @Query("SELECT DISTINCT t.account.id FROM Transaction t WHERE t.transactionDate > :from AND t.transactionDate <= :to")
+    List<Long> findAccountIdsWithEntriesBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT DISTINCT t.account.id FROM Transaction t WHERE t.transactionDate <= :to")
+    List<Long> findAccountIdsWithEntriesUpTo(@Param("to") LocalDateTime to);
+    
+    Optional<Transaction> findFirstByAccountIdOrderByTransactionDateAscIdAsc(Long accountId);
+    
+    interface DailyTotals {
+        LocalDate getEntryDate();
+        
+        Transaction.TransactionType getTransactionType();
+        
+        long getEntries();
+        
+        BigDecimal getVolume();
+    }
+    
+    // Admin stats rollup, served by idx_transactions_date
+    @Query("SELECT CAST(t.transactionDate AS LocalDate) AS entryDate, t.transactionType AS transactionType, " +
+           "COUNT(t) AS entries, COALESCE(SUM(t.amount), 0) AS volume " +
+           "FROM Transaction t WHERE t.transactionDate >= :since " +
+           "GROUP BY CAST(t.transactionDate AS LocalDate), t.transactionType")
+    List<DailyTotals> sumDailyByTransactionType(@Param("since") LocalDateTime since);
+    
     @Query("SELECT t FROM Transaction t WHERE t.transactionType = :transactionType")
     List<Transaction> findByTransactionType(@Param("transactionType") Transaction.TransactionType transactionType);
     
@@ -1,14 +1,20 @@
 package com.bankingcustomer.portal.repository;
 
+import com.bankingcustomer.portal.dto.transfer.TransferDto;
 import com.bankingcustomer.portal.entity.Transfer;
 import com.bankingcustomer.portal.entity.Account;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -16,28 +22,110 @@ import java.util.Optional;
 @Repository
 public interface TransferRepository extends JpaRepository<Transfer, Long> {
     
+    // Everything TransferDto needs in one statement, without loading entities
+    String TRANSFER_DTO_SELECT =
+        "SELECT new com.bankingcustomer.portal.dto.transfer.TransferDto(" +
+        "t.id, t.amount, t.transferFee, t.fromIban, t.toIban, t.beneficiaryName, t.description, " +
+        "t.referenceNumber, CAST(t.status AS String), t.createdAt, t.processedAt) " +
+        "FROM Transfer t ";
+    
     List<Transfer> findByFromAccount(Account fromAccount);
     
     List<Transfer> findByToAccount(Account toAccount);
     
-    @Query("SELECT t FROM Transfer t WHERE t.fromAccount.id = :accountId OR t.toAccount.id = :accountId ORDER BY t.createdAt DESC")
+    // OR over two columns defeats both indexes; each UNION ALL branch is a seek on its own index
+    @Query(value = "SELECT * FROM transfers WHERE from_account_id = :accountId " +
+                   "UNION ALL " +
+                   "SELECT * FROM transfers WHERE to_account_id = :accountId AND from_account_id <> :accountId " +
+                   "ORDER BY created_at DESC",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Transfer> findByAccountId(@Param("accountId") Long accountId);
     
-    @Query("SELECT t FROM Transfer t WHERE t.fromAccount.user.id = :userId OR t.toAccount.user.id = :userId ORDER BY t.createdAt DESC")
-    Page<Transfer> findByUserId(@Param("userId") Long userId, Pageable pageable);
+    // Keyset pages over (created_at, id): transfers sent by the user's accounts, then transfers
+    // received from someone else, each branch limited on its own index before the merge
+    @Query(value = "(SELECT t.* FROM transfers t JOIN accounts a ON a.id = t.from_account_id " +
+                   " WHERE a.user_id = :userId ORDER BY t.created_at DESC, t.id DESC LIMIT :pageSize) " +
+                   "UNION ALL " +
+                   "(SELECT t.* FROM transfers t JOIN accounts a ON a.id = t.to_account_id " +
+                   " JOIN accounts f ON f.id = t.from_account_id " +
+                   " WHERE a.user_id = :userId AND f.user_id <> :userId ORDER BY t.created_at DESC, t.id DESC LIMIT :pageSize) " +
+                   "ORDER BY created_at DESC, id DESC LIMIT :pageSize",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Transfer> findPageByUserId(@Param("userId") Long userId, @Param("pageSize") int pageSize);
+    
+    @Query(value = "(SELECT t.* FROM transfers t JOIN accounts a ON a.id = t.from_account_id " +
+                   " WHERE a.user_id = :userId AND (t.created_at, t.id) < (:createdAt, :id) " +
+                   " ORDER BY t.created_at DESC, t.id DESC LIMIT :pageSize) " +
+                   "UNION ALL " +
+                   "(SELECT t.* FROM transfers t JOIN accounts a ON a.id = t.to_account_id " +
+                   " JOIN accounts f ON f.id = t.from_account_id " +
+                   " WHERE a.user_id = :userId AND f.user_id <> :userId AND (t.created_at, t.id) < (:createdAt, :id) " +
+                   " ORDER BY t.created_at DESC, t.id DESC LIMIT :pageSize) " +
+                   "ORDER BY created_at DESC, id DESC LIMIT :pageSize",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Transfer> findPageByUserIdAfter(@Param("userId") Long userId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         @Param("pageSize") int pageSize);
     
     Optional<Transfer> findByReferenceNumber(String referenceNumber);
     
+    // Both accounts fetched with the row for ownership checks
+    @Query("SELECT t FROM Transfer t JOIN FETCH t.fromAccount LEFT JOIN FETCH t.toAccount WHERE t.id = :id")
+    Optional<Transfer> findWithAccountsById(@Param("id") Long id);
+    
+    @Query("SELECT t FROM Transfer t JOIN FETCH t.fromAccount LEFT JOIN FETCH t.toAccount " +
+           "WHERE t.referenceNumber = :referenceNumber")
+    Optional<Transfer> findWithAccountsByReferenceNumber(@Param("referenceNumber") String referenceNumber);
+    
+    @Query(TRANSFER_DTO_SELECT)
+    List<TransferDto> findAllDtos();
+    
+    @Query(TRANSFER_DTO_SELECT + "WHERE t.status = :status")
+    List<TransferDto> findDtosByStatus(@Param("status") Transfer.TransferStatus status);
+    
     @Query("SELECT t FROM Transfer t WHERE t.status = :status")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Transfer> findByStatus(@Param("status") Transfer.TransferStatus status);
     
-    @Query("SELECT t FROM Transfer t WHERE t.fromIban = :iban OR t.toIban = :iban ORDER BY t.createdAt DESC")
+    // Lock timeout -2 is Hibernate's SKIP LOCKED: rows claimed by another worker are passed over
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT t FROM Transfer t WHERE t.status = :status ORDER BY t.id")
+    List<Transfer> claimByStatus(@Param("status") Transfer.TransferStatus status, Pageable pageable);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transfer t WHERE t.id = :id")
+    Optional<Transfer> findByIdForUpdate(@Param("id") Long id);
+    
+    @Query(value = "SELECT * FROM transfers WHERE from_iban = :iban " +
+                   "UNION ALL " +
+                   "SELECT * FROM transfers WHERE to_iban = :iban AND from_iban <> :iban " +
+                   "ORDER BY created_at DESC",
+           nativeQuery = true)
     List<Transfer> findByIban(@Param("iban") String iban);
     
     @Query("SELECT t FROM Transfer t WHERE t.createdAt BETWEEN :startDate AND :endDate ORDER BY t.createdAt DESC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Transfer> findByDateRange(@Param("startDate") LocalDateTime startDate, 
                                   @Param("endDate") LocalDateTime endDate);
     
     @Query("SELECT COUNT(t) FROM Transfer t WHERE t.fromAccount.user.id = :userId")
     long countTransfersByUserId(@Param("userId") Long userId);
+    
+    interface StatusTotals {
+        Transfer.TransferStatus getStatus();
+        
+        long getEntries();
+        
+        BigDecimal getVolume();
+    }
+    
+    // Admin stats rollup
+    @Query("SELECT t.status AS status, COUNT(t) AS entries, COALESCE(SUM(t.amount), 0) AS volume " +
+           "FROM Transfer t GROUP BY t.status")
+    List<StatusTotals> sumByStatus();
 }
\ No newline at end of file
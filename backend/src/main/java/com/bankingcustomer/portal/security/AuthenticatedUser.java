@@ -0,0 +1,16 @@
+package com.bankingcustomer.portal.security;
+
+import com.bankingcustomer.portal.entity.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * The principal controllers work against. Implemented by the {@link User} entity, by its cached
+ * {@link UserPrincipal} snapshot when the user was loaded for authentication and by
+ * {@link TokenPrincipal} when it was built from token claims.
+ */
+public interface AuthenticatedUser extends UserDetails {
+    
+    Long getId();
+    
+    User.Role getRole();
+}
@@ -1,13 +1,14 @@
 package com.bankingcustomer.portal.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -24,6 +25,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
     
+    @Autowired
+    private UserDenylist userDenylist;
+    
+    // Build the principal from the token claims instead of loading the user on every request
+    @Value("${app.jwt.stateless-auth:false}")
+    private boolean statelessAuth;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
@@ -38,12 +46,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         
         jwt = authHeader.substring(7);
-        username = jwtUtils.extractUsername(jwt);
+        // Signature and expiry are verified here, once per request
+        final Claims claims = jwtUtils.getValidatedClaims(jwt);
+        username = claims != null ? claims.getSubject() : null;
         
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            AuthenticatedUser userDetails = statelessAuth ? TokenPrincipal.fromClaims(claims) : null;
+            if (userDetails == null) {
+                userDetails = (AuthenticatedUser) this.userDetailsService.loadUserByUsername(username);
+            }
             
-            if (jwtUtils.validateToken(jwt, userDetails)) {
+            if (username.equals(userDetails.getUsername()) && userDetails.isEnabled()
+                    && !userDenylist.isRevoked(userDetails.getId(), claims.getIssuedAt())) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                     userDetails,
                     null,
@@ -3,6 +3,7 @@ package com.bankingcustomer.portal.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -10,18 +11,50 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 @Component
 public class JwtUtils {
     
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLE_CLAIM = "role";
+    static final String ENABLED_CLAIM = "enabled";
+    
     @Value("${app.jwt.secret}")
     private String jwtSecret;
     
     @Value("${app.jwt.expiration}")
     private int jwtExpirationMs;
     
+    @Value("${app.jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+    
+    private SecretKey signingKey;
+    
+    private JwtParser jwtParser;
+    
+    // Once full, eviction makes this much room at a time so the scan is paid once per batch of misses
+    private static final double EVICTION_FRACTION = 0.1;
+    
+    // Verified, read-only claims by token, an entry is dropped once the token expires. The size
+    // bound is soft: concurrent misses can briefly push the map a few entries past it
+    private final Map<String, Claims> validatedTokens = new ConcurrentHashMap<>();
+    
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
+        signingKey = Keys.hmacShaKeyFor(keyBytes);
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+    
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -35,12 +68,59 @@ public class JwtUtils {
         return claimsResolver.apply(claims);
     }
     
+    /**
+     * Returns the claims of a token whose signature and expiry have been verified, or null when
+     * the token is malformed, forged or expired. Tokens are verified once and then served from
+     * a bounded cache until they expire.
+     */
+    public Claims getValidatedClaims(String token) {
+        try {
+            return extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims cached = validatedTokens.get(token);
+        if (cached != null) {
+            if (!isExpired(cached)) {
+                return cached;
+            }
+            validatedTokens.remove(token);
+        }
+        
+        Claims claims = new ReadOnlyClaims(jwtParser.parseClaimsJws(token).getBody());
+        if (claims.getExpiration() != null) {
+            if (validatedTokens.size() >= cacheMaxEntries) {
+                evict();
+            }
+            validatedTokens.put(token, claims);
+        }
+        return claims;
+    }
+    
+    private void evict() {
+        // One thread scans, the others store their entry and go on
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            validatedTokens.values().removeIf(this::isExpired);
+            // Still nearly full of live tokens, make room by dropping arbitrary ones
+            int target = cacheMaxEntries - Math.max(1, (int) (cacheMaxEntries * EVICTION_FRACTION));
+            Iterator<Claims> iterator = validatedTokens.values().iterator();
+            while (validatedTokens.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+    
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
     
     private Boolean isTokenExpired(String token) {
@@ -49,6 +129,12 @@ public class JwtUtils {
     
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        // Signed so the filter can rebuild the principal without loading the user
+        if (userDetails instanceof AuthenticatedUser user) {
+            claims.put(USER_ID_CLAIM, user.getId());
+            claims.put(ROLE_CLAIM, user.getRole().name());
+            claims.put(ENABLED_CLAIM, user.isEnabled());
+        }
         return createToken(claims, userDetails.getUsername());
     }
     
@@ -62,7 +148,7 @@ public class JwtUtils {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
@@ -72,19 +158,6 @@ public class JwtUtils {
     }
     
     public Boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
-    }
-    
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return getValidatedClaims(token) != null;
     }
-}
\ No newline at end of file
+}
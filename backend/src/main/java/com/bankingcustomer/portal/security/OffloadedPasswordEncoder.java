@@ -0,0 +1,33 @@
+package com.bankingcustomer.portal.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Delegates to another encoder, running encoding and matching on the password hashing pool.
+ * Upgrade checks are cheap and stay on the calling thread.
+ */
+public class OffloadedPasswordEncoder implements PasswordEncoder {
+    
+    private final PasswordEncoder delegate;
+    private final PasswordHashingService hashingService;
+    
+    public OffloadedPasswordEncoder(PasswordEncoder delegate, PasswordHashingService hashingService) {
+        this.delegate = delegate;
+        this.hashingService = hashingService;
+    }
+    
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hashingService.call(() -> delegate.encode(rawPassword));
+    }
+    
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hashingService.call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+    
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,101 @@
+package com.bankingcustomer.portal.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing and verification on its own small pool, so a burst of logins uses at
+ * most that many cores and cannot starve the request threads serving data endpoints. Work
+ * beyond the queue capacity is rejected with a {@link java.util.concurrent.RejectedExecutionException}.
+ */
+@Component
+public class PasswordHashingService {
+    
+    private static final String THREAD_PREFIX = "password-hashing-";
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.security.password-hashing.threads:2}")
+    private int threads;
+    
+    @Value("${app.security.password-hashing.queue-capacity:100}")
+    private int queueCapacity;
+    
+    private ThreadPoolExecutor executor;
+    
+    private Timer queueWait;
+    
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, THREAD_PREFIX + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        
+        queueWait = meterRegistry.timer("portal.password-hashing.queue-wait");
+        meterRegistry.gauge("portal.password-hashing.queued", executor, pool -> pool.getQueue().size());
+        meterRegistry.gauge("portal.password-hashing.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Queues the task on the hashing pool, the returned future completes on a hashing thread.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> {
+            queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            return task.get();
+        }, executor);
+    }
+    
+    /**
+     * Runs the task on the hashing pool and waits for it. Tasks already running on the pool run
+     * inline instead of queueing behind themselves.
+     */
+    public <T> T call(Supplier<T> task) {
+        if (Thread.currentThread().getName().startsWith(THREAD_PREFIX)) {
+            return task.get();
+        }
+        Future<T> future = submit(task);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+    
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+}
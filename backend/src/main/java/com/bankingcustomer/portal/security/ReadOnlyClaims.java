@@ -0,0 +1,115 @@
+package com.bankingcustomer.portal.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Set;
+
+/**
+ * Read-only view of verified claims. The validated token cache shares one instance between all
+ * requests carrying the token, so none of them can change what the others see.
+ */
+final class ReadOnlyClaims extends AbstractMap<String, Object> implements Claims {
+
+    private final Claims claims;
+
+    ReadOnlyClaims(Claims claims) {
+        this.claims = claims;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return Collections.unmodifiableMap(claims).entrySet();
+    }
+
+    @Override
+    public Object get(Object key) {
+        return claims.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return claims.containsKey(key);
+    }
+
+    @Override
+    public <T> T get(String claimName, Class<T> requiredType) {
+        return claims.get(claimName, requiredType);
+    }
+
+    @Override
+    public String getIssuer() {
+        return claims.getIssuer();
+    }
+
+    @Override
+    public String getSubject() {
+        return claims.getSubject();
+    }
+
+    @Override
+    public String getAudience() {
+        return claims.getAudience();
+    }
+
+    @Override
+    public Date getExpiration() {
+        return claims.getExpiration();
+    }
+
+    @Override
+    public Date getNotBefore() {
+        return claims.getNotBefore();
+    }
+
+    @Override
+    public Date getIssuedAt() {
+        return claims.getIssuedAt();
+    }
+
+    @Override
+    public String getId() {
+        return claims.getId();
+    }
+
+    @Override
+    public Claims setIssuer(String iss) {
+        throw readOnly();
+    }
+
+    @Override
+    public Claims setSubject(String sub) {
+        throw readOnly();
+    }
+
+    @Override
+    public Claims setAudience(String aud) {
+        throw readOnly();
+    }
+
+    @Override
+    public Claims setExpiration(Date exp) {
+        throw readOnly();
+    }
+
+    @Override
+    public Claims setNotBefore(Date nbf) {
+        throw readOnly();
+    }
+
+    @Override
+    public Claims setIssuedAt(Date iat) {
+        throw readOnly();
+    }
+
+    @Override
+    public Claims setId(String jti) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Validated claims are read-only");
+    }
+}
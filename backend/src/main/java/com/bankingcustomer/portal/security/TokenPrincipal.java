@@ -0,0 +1,85 @@
+package com.bankingcustomer.portal.security;
+
+import com.bankingcustomer.portal.entity.User;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal rebuilt from the signed claims of a token, without loading the user.
+ */
+public class TokenPrincipal implements AuthenticatedUser {
+    
+    private final Long id;
+    private final String username;
+    private final User.Role role;
+    private final boolean enabled;
+    
+    public TokenPrincipal(Long id, String username, User.Role role, boolean enabled) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.enabled = enabled;
+    }
+    
+    /**
+     * Returns null when the token predates the user claims, the caller then falls back to loading the user.
+     */
+    public static TokenPrincipal fromClaims(Claims claims) {
+        Number id = claims.get(JwtUtils.USER_ID_CLAIM, Number.class);
+        String role = claims.get(JwtUtils.ROLE_CLAIM, String.class);
+        Boolean enabled = claims.get(JwtUtils.ENABLED_CLAIM, Boolean.class);
+        if (id == null || role == null || enabled == null) {
+            return null;
+        }
+        return new TokenPrincipal(id.longValue(), claims.getSubject(), User.Role.valueOf(role), enabled);
+    }
+    
+    @Override
+    public Long getId() {
+        return id;
+    }
+    
+    @Override
+    public User.Role getRole() {
+        return role;
+    }
+    
+    @Override
+    public String getUsername() {
+        return username;
+    }
+    
+    @Override
+    public String getPassword() {
+        return null;
+    }
+    
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+    
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+    
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+    
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -0,0 +1,140 @@
+package com.bankingcustomer.portal.security;
+
+import com.bankingcustomer.portal.event.UserDisabledEvent;
+import com.bankingcustomer.portal.event.UserUpdatedEvent;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carries user cache invalidations between nodes over PostgreSQL LISTEN/NOTIFY. Every committed
+ * user change is announced on a channel, and each node evicts the user from its own
+ * {@link UserPrincipalCache} when the notification arrives. Holds one connection for listening.
+ */
+@Component
+public class UserCacheInvalidationListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserCacheInvalidationListener.class);
+    
+    private static final String CHANNEL = "user_cache_invalidation";
+    
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${app.user-cache.cluster-invalidation:false}")
+    private boolean enabled;
+    
+    @Value("${app.user-cache.listen-timeout-ms:500}")
+    private int listenTimeoutMs;
+    
+    private ExecutorService executor;
+    
+    private volatile boolean running;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        executor = Executors.newSingleThreadExecutor();
+        executor.submit(this::listen);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        publish(event.getUserId());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDisabled(UserDisabledEvent event) {
+        publish(event.getUserId());
+    }
+    
+    private void publish(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, CHANNEL, userId.toString());
+        } catch (RuntimeException e) {
+            // Other nodes still drop the entry once its TTL runs out
+            logger.warn("Could not announce user cache invalidation for user {}: {}", userId, e.getMessage());
+        }
+    }
+    
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Notifications sent while not listening are lost, start over from an empty cache
+                userPrincipalCache.invalidateAll();
+                
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(listenTimeoutMs);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        evict(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                logger.warn("User cache invalidation listener failed, reconnecting: {}", e.getMessage());
+                pause();
+            }
+        }
+    }
+    
+    private void evict(String payload) {
+        try {
+            userPrincipalCache.invalidate(Long.valueOf(payload));
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring user cache invalidation with payload {}", payload);
+        }
+    }
+    
+    private void pause() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
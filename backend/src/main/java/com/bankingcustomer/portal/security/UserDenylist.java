@@ -0,0 +1,41 @@
+package com.bankingcustomer.portal.security;
+
+import com.bankingcustomer.portal.event.UserDisabledEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users whose tokens are revoked, with the time before which their tokens were issued. Stateless
+ * authentication never reloads the user, so this is what turns away tokens of disabled users.
+ * An entry is kept only as long as a token issued before it can still be valid.
+ */
+@Component
+public class UserDenylist {
+    
+    @Value("${app.jwt.expiration}")
+    private long jwtExpirationMs;
+    
+    // Epoch millis, rounded up to the second since token issue times have second precision
+    private final Map<Long, Long> revokedBefore = new ConcurrentHashMap<>();
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDisabled(UserDisabledEvent event) {
+        revoke(event.getUserId());
+    }
+    
+    public void revoke(Long userId) {
+        long now = System.currentTimeMillis();
+        revokedBefore.values().removeIf(before -> before + jwtExpirationMs < now);
+        revokedBefore.put(userId, (now / 1000 + 1) * 1000);
+    }
+    
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        Long before = revokedBefore.get(userId);
+        return before != null && (issuedAt == null || issuedAt.getTime() < before);
+    }
+}
@@ -0,0 +1,140 @@
+package com.bankingcustomer.portal.security;
+
+import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.event.UserDisabledEvent;
+import com.bankingcustomer.portal.event.UserUpdatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Users loaded for authentication, by username, bounded in size and age. Entries are immutable
+ * {@link UserPrincipal} snapshots, evicted once the change to a user has committed, and on the
+ * other nodes through {@link UserCacheInvalidationListener} when cluster invalidation is enabled.
+ * The size bound is soft: concurrent misses can briefly push the map a few entries past it.
+ */
+@Component
+public class UserPrincipalCache {
+    
+    // Once full, eviction makes this much room at a time so the scan is paid once per batch of misses
+    private static final double EVICTION_FRACTION = 0.1;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.user-cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.user-cache.max-entries:10000}")
+    private int maxEntries;
+    
+    @Value("${app.user-cache.ttl-ms:300000}")
+    private long ttlMs;
+    
+    private final Map<String, CachedUser> users = new ConcurrentHashMap<>();
+    
+    // Bumped by every invalidation, a load that raced one is not stored
+    private final AtomicLong generation = new AtomicLong();
+    
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    
+    private Counter hits;
+    private Counter misses;
+    
+    @PostConstruct
+    void registerMetrics() {
+        hits = meterRegistry.counter("portal.user-cache.requests", "result", "hit");
+        misses = meterRegistry.counter("portal.user-cache.requests", "result", "miss");
+        meterRegistry.gaugeMapSize("portal.user-cache.size", List.of(), users);
+    }
+    
+    public UserPrincipal get(String username, Supplier<User> loader) {
+        if (!enabled) {
+            return UserPrincipal.from(loader.get());
+        }
+        
+        long now = System.currentTimeMillis();
+        CachedUser cached = users.get(username);
+        if (cached != null && cached.expiresAt > now) {
+            hits.increment();
+            return cached.user;
+        }
+        
+        misses.increment();
+        long loadedAt = generation.get();
+        UserPrincipal user = UserPrincipal.from(loader.get());
+        if (users.size() >= maxEntries) {
+            evict(now);
+        }
+        // Checked under the entry's lock: an invalidation bumps the generation before it removes
+        // entries, so it either sees this entry or this check sees the new generation
+        users.compute(username, (key, existing) ->
+            generation.get() == loadedAt ? new CachedUser(user, now + ttlMs) : existing);
+        return user;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        invalidate(event.getUserId());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDisabled(UserDisabledEvent event) {
+        invalidate(event.getUserId());
+    }
+    
+    /**
+     * Drops the cached entry of a user on this node. Keyed by username, so a renamed user is found by id.
+     */
+    public void invalidate(Long userId) {
+        generation.incrementAndGet();
+        users.values().removeIf(cached -> userId.equals(cached.user.getId()));
+    }
+    
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        users.clear();
+    }
+    
+    private void evict(long now) {
+        // One thread scans, the others store their entry and go on
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            users.values().removeIf(cached -> cached.expiresAt <= now);
+            // Still nearly full of live entries, make room by dropping arbitrary ones
+            int target = maxEntries - Math.max(1, (int) (maxEntries * EVICTION_FRACTION));
+            Iterator<CachedUser> iterator = users.values().iterator();
+            while (users.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+    
+    private static final class CachedUser {
+        
+        private final UserPrincipal user;
+        private final long expiresAt;
+        
+        private CachedUser(UserPrincipal user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.entity.AccountActivityRollup;
+import com.bankingcustomer.portal.event.LedgerPostedEvent;
+import com.bankingcustomer.portal.repository.AccountActivityRollupRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the account activity rollups up to date as ledger entries commit. Deltas are coalesced
+ * per account and period in memory and merged in one batch per flush, so hot accounts cost one
+ * row update per flush rather than one per entry, and balance transactions pay nothing extra.
+ * Deltas still queued when a node dies are lost; the backfill rebuilds them from the ledger,
+ * fencing each account range it rebuilds (see {@link #fence}).
+ */
+@Component
+public class AccountActivityRollupWriter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AccountActivityRollupWriter.class);
+    
+    private static final AccountActivityRollup.Granularity[] GRANULARITIES = AccountActivityRollup.Granularity.values();
+    
+    @Autowired
+    private AccountActivityRollupRepository rollupRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${app.analytics.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+    
+    private final Map<AccountActivityRollup.Key, AccountActivityRollup> pending = new ConcurrentHashMap<>();
+    
+    // Entries of transactions past their before-commit phase whose outcome is not known yet
+    private final Set<Posting> inFlight = ConcurrentHashMap.newKeySet();
+    
+    // Publishing entries shares it, fencing a range takes it exclusively
+    private final ReadWriteLock fenceLock = new ReentrantReadWriteLock();
+    
+    private ScheduledExecutorService scheduler;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        flush();
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onLedgerPosted(LedgerPostedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            event.getEntries().forEach(this::addEntry);
+            return;
+        }
+        // Optimistic writes update their accounts at flush; flushing here means the transaction holds
+        // the rows of all its accounts from now until it completes, which is what fence relies on
+        try {
+            entityManager.flush();
+        } catch (RuntimeException e) {
+            // Surface conflicts the way a flush at commit would
+            DataAccessException translated = EntityManagerFactoryUtils.convertJpaAccessExceptionIfPossible(e);
+            throw translated != null ? translated : e;
+        }
+        Posting posting = new Posting(event.getEntries());
+        inFlight.add(posting);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                publish(posting, status == STATUS_COMMITTED);
+            }
+        });
+    }
+    
+    /**
+     * Hands the rollups of the accounts in [fromAccountId, toAccountId] over to a rebuild running
+     * in the current transaction, which must already hold the row locks of those accounts. Ledger
+     * writes hold their accounts' rows until they complete, so every entry of the range committed
+     * before the locks were granted is counted by the rebuild, and every later one commits after
+     * it. Deltas of the earlier entries are therefore dropped here, and those of later entries are
+     * merged on top of the rebuilt rows as usual. If the rebuild rolls back, the dropped deltas are
+     * queued again.
+     */
+    public void fence(long fromAccountId, long toAccountId) {
+        List<LedgerPostedEvent.Entry> droppedEntries = new ArrayList<>();
+        List<AccountActivityRollup> droppedDeltas = new ArrayList<>();
+        fenceLock.writeLock().lock();
+        try {
+            for (Posting posting : inFlight) {
+                posting.entries.removeIf(entry -> {
+                    boolean inRange = entry.getAccountId() >= fromAccountId && entry.getAccountId() <= toAccountId;
+                    if (inRange) {
+                        droppedEntries.add(entry);
+                    }
+                    return inRange;
+                });
+            }
+            // Waits for a running flush, so no merge of the range races the rebuild
+            synchronized (this) {
+                for (AccountActivityRollup.Key key : pending.keySet()) {
+                    if (key.getAccountId() >= fromAccountId && key.getAccountId() <= toAccountId) {
+                        AccountActivityRollup delta = pending.remove(key);
+                        if (delta != null) {
+                            droppedDeltas.add(delta);
+                        }
+                    }
+                }
+            }
+        } finally {
+            fenceLock.writeLock().unlock();
+        }
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    droppedEntries.forEach(AccountActivityRollupWriter.this::addEntry);
+                    droppedDeltas.forEach(AccountActivityRollupWriter.this::requeue);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Writes every queued delta. Returns the number of rollup rows merged.
+     */
+    public synchronized int flush() {
+        // Removing key by key never loses a concurrent add, it simply lands in a fresh delta
+        List<AccountActivityRollup> deltas = new ArrayList<>(pending.size());
+        for (AccountActivityRollup.Key key : pending.keySet()) {
+            AccountActivityRollup delta = pending.remove(key);
+            if (delta != null) {
+                deltas.add(delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> rollupRepository.mergeAll(deltas));
+            return deltas.size();
+        } catch (RuntimeException e) {
+            // Put everything back for the next flush (a concurrent first insert from another node lands here too)
+            deltas.forEach(this::requeue);
+            logger.warn("Flushing {} account activity rollups failed: {}", deltas.size(), e.getMessage());
+            return 0;
+        }
+    }
+    
+    private void publish(Posting posting, boolean committed) {
+        fenceLock.readLock().lock();
+        try {
+            inFlight.remove(posting);
+            if (committed) {
+                posting.entries.forEach(this::addEntry);
+            }
+        } finally {
+            fenceLock.readLock().unlock();
+        }
+    }
+    
+    private void addEntry(LedgerPostedEvent.Entry entry) {
+        BigDecimal credits = BigDecimal.ZERO;
+        BigDecimal debits = BigDecimal.ZERO;
+        BigDecimal fees = BigDecimal.ZERO;
+        switch (entry.getTransactionType()) {
+            case CREDIT:
+            case TRANSFER_IN:
+                credits = entry.getAmount();
+                break;
+            case DEBIT:
+            case TRANSFER_OUT:
+                debits = entry.getAmount();
+                fees = entry.getFee() != null ? entry.getFee() : BigDecimal.ZERO;
+                break;
+            case FEE:
+                fees = entry.getAmount();
+                break;
+            default:
+                break;
+        }
+        for (AccountActivityRollup.Granularity granularity : GRANULARITIES) {
+            add(new AccountActivityRollup.Key(entry.getAccountId(), granularity,
+                    granularity.periodStart(entry.getTransactionDate().toLocalDate())),
+                credits, debits, fees, 1, entry.getBalanceAfter(), entry.getBalanceAfter());
+        }
+    }
+    
+    private void requeue(AccountActivityRollup delta) {
+        add(delta.getId(), delta.getCredits(), delta.getDebits(), delta.getFees(), delta.getEntryCount(),
+            delta.getMinBalance(), delta.getMaxBalance());
+    }
+    
+    private void add(AccountActivityRollup.Key key, BigDecimal credits, BigDecimal debits, BigDecimal fees,
+                     long entryCount, BigDecimal minBalance, BigDecimal maxBalance) {
+        pending.compute(key, (k, delta) -> {
+            AccountActivityRollup target = delta != null ? delta : new AccountActivityRollup(k);
+            target.add(credits, debits, fees, entryCount, minBalance, maxBalance);
+            return target;
+        });
+    }
+    
+    // Entries are removed by fence while the transaction is still completing
+    private static final class Posting {
+        private final List<LedgerPostedEvent.Entry> entries;
+        
+        private Posting(List<LedgerPostedEvent.Entry> entries) {
+            this.entries = new ArrayList<>(entries);
+        }
+    }
+}
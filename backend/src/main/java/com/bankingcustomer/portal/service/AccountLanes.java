@@ -0,0 +1,108 @@
+package com.bankingcustomer.portal.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped in-process lanes that serialize balance mutations per account before they
+ * reach the database. Work on the same account queues up here in FIFO order instead of
+ * holding a connection while it waits on the row lock; unrelated accounts map to
+ * different stripes and run in parallel.
+ */
+@Component
+public class AccountLanes {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.lanes.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.lanes.stripes:64}")
+    private int stripeCount;
+    
+    @Value("${app.lanes.timeout-ms:30000}")
+    private long timeoutMs;
+    
+    private ReentrantLock[] stripes;
+    
+    private Timer[] waitTimers;
+    
+    @PostConstruct
+    void init() {
+        stripes = new ReentrantLock[stripeCount];
+        waitTimers = new Timer[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            ReentrantLock lock = new ReentrantLock(true);
+            String stripe = Integer.toString(i);
+            stripes[i] = lock;
+            waitTimers[i] = Timer.builder("portal.lanes.wait")
+                    .tag("stripe", stripe)
+                    .register(meterRegistry);
+            Gauge.builder("portal.lanes.queue.depth", lock, ReentrantLock::getQueueLength)
+                    .tag("stripe", stripe)
+                    .register(meterRegistry);
+        }
+    }
+    
+    /**
+     * Runs the work while holding the lanes of all given accounts. Stripes are taken in
+     * index order so two multi-account operations can never wait on each other in a cycle.
+     */
+    public <T> T runInLanes(Collection<Long> accountIds, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        
+        int[] held = accountIds.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(this::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+        
+        int acquired = 0;
+        try {
+            for (int stripe : held) {
+                acquire(stripe);
+                acquired++;
+            }
+            return work.get();
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[held[i]].unlock();
+            }
+        }
+    }
+    
+    private void acquire(int stripe) {
+        long start = System.nanoTime();
+        try {
+            if (!stripes[stripe].tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Timed out waiting for account lane " + stripe);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for account lane " + stripe, e);
+        } finally {
+            waitTimers[stripe].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    private int stripeOf(Long accountId) {
+        // Spread sequential ids before reducing them to a stripe index
+        long h = accountId * 0x9E3779B97F4A7C15L;
+        return (int) ((h >>> 32) % stripeCount);
+    }
+}
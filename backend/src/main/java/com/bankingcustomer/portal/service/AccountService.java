@@ -2,9 +2,11 @@ package com.bankingcustomer.portal.service;
 
 import com.bankingcustomer.portal.entity.Account;
 import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.event.AccountOpenedEvent;
 import com.bankingcustomer.portal.repository.AccountRepository;
 import com.bankingcustomer.portal.repository.TransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,10 +24,16 @@ public class AccountService {
     @Autowired
     private TransactionRepository transactionRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Transactional(readOnly = true)
     public List<Account> getAllAccounts() {
         return accountRepository.findAll();
     }
     
+    // Single-entity lookups stay read-write: with open-in-view the entity outlives this transaction,
+    // and one loaded read-only would not be flushed when a later write in the same request changes it
     public Optional<Account> getAccountById(Long id) {
         return accountRepository.findById(id);
     }
@@ -34,19 +42,43 @@ public class AccountService {
         return accountRepository.findByIban(iban);
     }
     
+    @Transactional(readOnly = true)
+    public Optional<Long> getAccountIdByIban(String iban) {
+        return accountRepository.findIdByIban(iban);
+    }
+    
+    /**
+     * The owner of the account, for access checks that must not put the account itself into
+     * the request's persistence context, where a later write would find it stale.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> getOwnerIdByIban(String iban) {
+        return accountRepository.findOwnerIdByIban(iban);
+    }
+    
+    @Transactional(readOnly = true)
     public List<Account> getAccountsByUser(User user) {
         return accountRepository.findByUser(user);
     }
     
+    @Transactional(readOnly = true)
     public List<Account> getActiveAccountsByUserId(Long userId) {
         return accountRepository.findActiveAccountsByUserId(userId);
     }
     
+    @Transactional(readOnly = true)
+    public List<AccountRepository.AccountVersion> getActiveAccountVersions(Long userId) {
+        return accountRepository.findActiveVersionsByUserId(userId);
+    }
+    
     public Account createAccount(Account account) {
         if (accountRepository.existsByIban(account.getIban())) {
             throw new IllegalArgumentException("Account with IBAN " + account.getIban() + " already exists");
         }
-        return accountRepository.save(account);
+        Account savedAccount = accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountOpenedEvent(
+            savedAccount.getId(), savedAccount.getAccountType(), savedAccount.getBalance()));
+        return savedAccount;
     }
     
     public Account updateAccount(Account account) {
@@ -71,12 +103,14 @@ public class AccountService {
         }
     }
     
+    @Transactional(readOnly = true)
     public BigDecimal getAccountBalance(Long accountId) {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + accountId));
         return account.getBalance();
     }
     
+    @Transactional(readOnly = true)
     public BigDecimal getAccountBalance(String iban) {
         Account account = accountRepository.findByIban(iban)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found with IBAN: " + iban));
@@ -0,0 +1,164 @@
+package com.bankingcustomer.portal.service;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * One open account stream. Events wait in a bounded queue and are written by whichever writer
+ * thread picks the connection up, one batch at a time, so a client that reads slowly occupies at
+ * most one writer and never holds up the thread that publishes. A client that falls further
+ * behind than the queue allows is disconnected; it reconnects and starts over from the current
+ * balances.
+ */
+class AccountStreamConnection {
+    
+    // Events written per turn before the writer moves on to other connections
+    private static final int BATCH_SIZE = 64;
+    
+    private final SseEmitter emitter;
+    
+    private final BlockingDeque<SseEmitter.SseEventBuilder> pending;
+    
+    private final Executor writers;
+    
+    private final Counter delivered;
+    
+    private final Counter dropped;
+    
+    private final Consumer<AccountStreamConnection> onClose;
+    
+    // At most one writer works on the connection at a time, which keeps its events in order
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    
+    private volatile boolean primed;
+    
+    private volatile boolean closed;
+    
+    // Only touched by the writer holding the connection
+    private boolean finished;
+    
+    AccountStreamConnection(SseEmitter emitter, int capacity, Executor writers, Counter delivered, Counter dropped,
+                            Consumer<AccountStreamConnection> onClose) {
+        this.emitter = emitter;
+        this.pending = new LinkedBlockingDeque<>(capacity);
+        this.writers = writers;
+        this.delivered = delivered;
+        this.dropped = dropped;
+        this.onClose = onClose;
+    }
+    
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+    
+    /**
+     * Puts the initial events in front of everything queued so far and starts writing. Events
+     * published while the initial state was being read stay queued behind it, so the client ends
+     * up with the newer values.
+     */
+    void prime(List<SseEmitter.SseEventBuilder> events) {
+        ListIterator<SseEmitter.SseEventBuilder> iterator = events.listIterator(events.size());
+        while (iterator.hasPrevious()) {
+            if (!pending.offerFirst(iterator.previous())) {
+                overflow();
+                return;
+            }
+        }
+        primed = true;
+        schedule();
+    }
+    
+    /**
+     * Queues an event, disconnecting the client when its queue is full.
+     *
+     * @return false when the connection is closed, or was closed because of this event
+     */
+    boolean offer(SseEmitter.SseEventBuilder event) {
+        if (closed) {
+            return false;
+        }
+        if (!pending.offerLast(event)) {
+            overflow();
+            return false;
+        }
+        schedule();
+        return true;
+    }
+    
+    // Heartbeats only matter on a connection that has nothing else to write
+    void offerIfIdle(SseEmitter.SseEventBuilder event) {
+        if (pending.isEmpty()) {
+            offer(event);
+        }
+    }
+    
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pending.clear();
+        onClose.accept(this);
+        schedule();
+    }
+    
+    private void overflow() {
+        dropped.increment();
+        close();
+    }
+    
+    private void schedule() {
+        if ((primed || closed) && scheduled.compareAndSet(false, true)) {
+            try {
+                writers.execute(this::write);
+            } catch (RejectedExecutionException e) {
+                // Shutting down, the emitters are completed by the hub
+                scheduled.set(false);
+            }
+        }
+    }
+    
+    private void write() {
+        try {
+            if (finished) {
+                return;
+            }
+            if (closed) {
+                finished = true;
+                emitter.complete();
+                return;
+            }
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                SseEmitter.SseEventBuilder event = pending.poll();
+                if (event == null) {
+                    break;
+                }
+                emitter.send(event);
+                delivered.increment();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client disconnected or the stream has already completed
+            finished = true;
+            closed = true;
+            pending.clear();
+            onClose.accept(this);
+            emitter.completeWithError(e);
+            return;
+        } finally {
+            scheduled.set(false);
+        }
+        if (!pending.isEmpty() || closed) {
+            schedule();
+        }
+    }
+}
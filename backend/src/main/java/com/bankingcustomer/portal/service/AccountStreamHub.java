@@ -0,0 +1,189 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.dto.account.AccountStreamEntryDto;
+import com.bankingcustomer.portal.dto.account.BalanceUpdateDto;
+import com.bankingcustomer.portal.entity.Account;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * The account streams open on this node. A stream is an async servlet request parked in an
+ * {@link SseEmitter}, so an idle client holds a socket but no thread and no database connection.
+ * Each stream has its own bounded queue, drained by a small pool of writer threads (see
+ * {@link AccountStreamConnection}). Entries reach the hub through {@link AccountStreamRelay},
+ * which carries them between nodes when streams and transfers are served by different ones.
+ */
+@Component
+public class AccountStreamHub {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AccountStreamHub.class);
+    
+    @Autowired
+    private AccountService accountService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.stream.max-connections:50000}")
+    private int maxConnections;
+    
+    @Value("${app.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+    
+    @Value("${app.stream.heartbeat-ms:25000}")
+    private long heartbeatMs;
+    
+    @Value("${app.stream.writer-threads:4}")
+    private int writerThreads;
+    
+    @Value("${app.stream.queue-capacity:256}")
+    private int queueCapacity;
+    
+    private final Map<Long, Set<AccountStreamConnection>> subscribers = new ConcurrentHashMap<>();
+    
+    private final AtomicInteger connections = new AtomicInteger();
+    
+    private ExecutorService writers;
+    
+    private ScheduledExecutorService heartbeat;
+    
+    private Counter delivered;
+    
+    private Counter dropped;
+    
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(writerThreads,
+            runnable -> new Thread(runnable, "account-stream-" + threadCount.incrementAndGet()));
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "account-stream-heartbeat"));
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        
+        delivered = meterRegistry.counter("portal.stream.events");
+        dropped = meterRegistry.counter("portal.stream.dropped");
+        meterRegistry.gauge("portal.stream.connections", connections);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        heartbeat.shutdownNow();
+        writers.shutdown();
+        writers.awaitTermination(5, TimeUnit.SECONDS);
+        subscribers.values().forEach(userConnections -> userConnections.forEach(
+            connection -> connection.getEmitter().complete()));
+    }
+    
+    /**
+     * Opens a stream for the user. It starts with the current balance of each active account and
+     * then carries every committed ledger entry on the user's accounts, as "transaction" and
+     * "balance" events.
+     *
+     * @throws RejectedExecutionException when the maximum number of streams is already open
+     */
+    public SseEmitter subscribe(Long userId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new RejectedExecutionException("Too many open account streams");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        AccountStreamConnection connection = new AccountStreamConnection(emitter, queueCapacity, writers,
+            delivered, dropped, closed -> unsubscribe(userId, closed));
+        // Added inside compute, so a concurrent unsubscribe cannot drop the set it is added to
+        subscribers.compute(userId, (id, userConnections) -> {
+            Set<AccountStreamConnection> connectionSet = userConnections != null ? userConnections : ConcurrentHashMap.newKeySet();
+            connectionSet.add(connection);
+            return connectionSet;
+        });
+        emitter.onCompletion(() -> unsubscribe(userId, connection));
+        emitter.onError(error -> unsubscribe(userId, connection));
+        // Clients reconnect on their own once the stream ends
+        emitter.onTimeout(emitter::complete);
+        
+        // Balances are read on a writer thread, in a transaction of their own, so the request
+        // thread's open-in-view session never takes a connection it would keep for the stream's life
+        writers.execute(() -> sendBalances(userId, connection));
+        return emitter;
+    }
+    
+    /**
+     * Queues the entries on the streams of their owners. Never blocks: a stream whose queue is
+     * full is disconnected instead.
+     */
+    public void publish(List<AccountStreamEntryDto> entries) {
+        Map<Long, List<AccountStreamEntryDto>> entriesByUser = entries.stream()
+            .filter(entry -> subscribers.containsKey(entry.getUserId()))
+            .collect(Collectors.groupingBy(AccountStreamEntryDto::getUserId));
+        entriesByUser.forEach((userId, userEntries) -> {
+            Set<AccountStreamConnection> userConnections = subscribers.get(userId);
+            if (userConnections == null) {
+                return;
+            }
+            for (AccountStreamConnection connection : userConnections) {
+                for (AccountStreamEntryDto entry : userEntries) {
+                    if (!connection.offer(event("transaction", entry.getTransaction()))
+                            || !connection.offer(event("balance", entry.getBalance()))) {
+                        break;
+                    }
+                }
+            }
+        });
+    }
+    
+    private void sendBalances(Long userId, AccountStreamConnection connection) {
+        try {
+            List<SseEmitter.SseEventBuilder> balances = new ArrayList<>();
+            for (Account account : accountService.getActiveAccountsByUserId(userId)) {
+                balances.add(event("balance", new BalanceUpdateDto(account.getId(), account.getIban(), account.getBalance())));
+            }
+            connection.prime(balances);
+        } catch (RuntimeException e) {
+            logger.warn("Could not load balances for the account stream of user {}", userId, e);
+            connection.close();
+        }
+    }
+    
+    // Comment lines keep proxies from closing idle streams and surface clients that went away
+    private void sendHeartbeats() {
+        try {
+            subscribers.values().forEach(userConnections -> userConnections.forEach(
+                connection -> connection.offerIfIdle(SseEmitter.event().comment("keepalive"))));
+        } catch (RuntimeException e) {
+            logger.warn("Account stream heartbeat failed", e);
+        }
+    }
+    
+    private void unsubscribe(Long userId, AccountStreamConnection connection) {
+        subscribers.computeIfPresent(userId, (id, userConnections) -> {
+            if (userConnections.remove(connection)) {
+                connections.decrementAndGet();
+            }
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+    
+    private static SseEmitter.SseEventBuilder event(String name, Object data) {
+        return SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+    }
+}
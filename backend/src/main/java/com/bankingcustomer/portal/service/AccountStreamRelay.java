@@ -0,0 +1,155 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.dto.account.AccountStreamEntryDto;
+import com.bankingcustomer.portal.dto.account.BalanceUpdateDto;
+import com.bankingcustomer.portal.event.LedgerPostedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands committed ledger entries to the {@link AccountStreamHub}. On a single node they go
+ * straight to the local hub. With cluster fan-out every entry is announced over PostgreSQL
+ * LISTEN/NOTIFY instead, and each node, this one included, delivers it to the streams it holds.
+ * Holds one connection for listening.
+ */
+@Component
+public class AccountStreamRelay {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AccountStreamRelay.class);
+    
+    private static final String CHANNEL = "account_stream";
+    
+    @Autowired
+    private AccountStreamHub accountStreamHub;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${app.stream.cluster-fanout:false}")
+    private boolean clusterFanout;
+    
+    @Value("${app.stream.listen-timeout-ms:500}")
+    private int listenTimeoutMs;
+    
+    private ExecutorService executor;
+    
+    private volatile boolean running;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!clusterFanout) {
+            return;
+        }
+        running = true;
+        executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "account-stream-relay"));
+        executor.submit(this::listen);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerPosted(LedgerPostedEvent event) {
+        List<AccountStreamEntryDto> entries = new ArrayList<>();
+        for (LedgerPostedEvent.Entry entry : event.getEntries()) {
+            entries.add(new AccountStreamEntryDto(entry.getUserId(), entry.getTransaction(),
+                new BalanceUpdateDto(entry.getAccountId(), entry.getTransaction().getAccountIban(), entry.getBalanceAfter())));
+        }
+        if (clusterFanout) {
+            announce(entries);
+        } else {
+            accountStreamHub.publish(entries);
+        }
+    }
+    
+    private void announce(List<AccountStreamEntryDto> entries) {
+        try {
+            // One notification per entry keeps each payload well below the 8000 byte limit, and
+            // unnest sends them all in a single statement
+            String[] payloads = new String[entries.size()];
+            for (int i = 0; i < payloads.length; i++) {
+                payloads[i] = objectMapper.writeValueAsString(entries.get(i));
+            }
+            jdbcTemplate.query("SELECT pg_notify(?, payload) FROM unnest(?) AS payload", statement -> {
+                statement.setString(1, CHANNEL);
+                statement.setArray(2, statement.getConnection().createArrayOf("text", payloads));
+            }, resultSet -> {});
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Open streams miss these entries, clients still see the balances on their next reconnect
+            logger.warn("Could not announce {} ledger entries to the account streams: {}", entries.size(), e.getMessage());
+        }
+    }
+    
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(listenTimeoutMs);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    List<AccountStreamEntryDto> entries = new ArrayList<>(notifications.length);
+                    for (PGNotification notification : notifications) {
+                        try {
+                            entries.add(objectMapper.readValue(notification.getParameter(), AccountStreamEntryDto.class));
+                        } catch (JsonProcessingException e) {
+                            logger.warn("Ignoring account stream notification: {}", e.getMessage());
+                        }
+                    }
+                    accountStreamHub.publish(entries);
+                }
+            } catch (SQLException | RuntimeException e) {
+                logger.warn("Account stream relay failed, reconnecting: {}", e.getMessage());
+                pause();
+            }
+        }
+    }
+    
+    private void pause() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.bankingcustomer.portal.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds the admin statistics from the database at startup and then periodically, bounding
+ * how long counters can drift from the tables.
+ */
+@Component
+public class AdminStatsRollupWorker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdminStatsRollupWorker.class);
+    
+    @Autowired
+    private AdminStatsService adminStatsService;
+    
+    @Value("${app.admin-stats.rollup-enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.admin-stats.rollup-interval-ms:60000}")
+    private long intervalMs;
+    
+    private ScheduledExecutorService scheduler;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(this::run, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+    
+    private void run() {
+        try {
+            adminStatsService.rollup();
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the schedule, counters keep being maintained incrementally
+            logger.warn("Admin stats rollup failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.dto.admin.AdminStatsDto;
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transaction;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.event.AccountOpenedEvent;
+import com.bankingcustomer.portal.event.LedgerPostedEvent;
+import com.bankingcustomer.portal.event.TransferStatusChangedEvent;
+import com.bankingcustomer.portal.event.UserRegisteredEvent;
+import com.bankingcustomer.portal.repository.AccountRepository;
+import com.bankingcustomer.portal.repository.TransactionRepository;
+import com.bankingcustomer.portal.repository.TransferRepository;
+import com.bankingcustomer.portal.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admin overview statistics kept in memory. Counters are bumped by the services' events once
+ * their transaction commits, and rebuilt from aggregate queries by a periodic rollup which
+ * corrects any drift (writes from other nodes, balances changed outside the ledger, increments
+ * racing a rollup). Reading the stats never touches the database.
+ */
+@Service
+public class AdminStatsService {
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Value("${app.admin-stats.days:90}")
+    private int days;
+    
+    private volatile Counters counters = new Counters();
+    
+    private volatile LocalDateTime lastRollupAt;
+    
+    public AdminStatsDto getStats() {
+        Counters current = counters;
+        AdminStatsDto stats = new AdminStatsDto();
+        
+        Map<String, AdminStatsDto.Totals> accountsByType = new LinkedHashMap<>();
+        long totalAccounts = 0;
+        BigDecimal totalBalance = BigDecimal.ZERO;
+        for (Account.AccountType type : Account.AccountType.values()) {
+            Tally tally = current.accounts.getOrDefault(type, Tally.ZERO);
+            accountsByType.put(type.name(), new AdminStatsDto.Totals(tally.count, tally.amount));
+            totalAccounts += tally.count;
+            totalBalance = totalBalance.add(tally.amount);
+        }
+        stats.setAccountsByType(accountsByType);
+        stats.setTotalAccounts(totalAccounts);
+        stats.setTotalBalance(totalBalance);
+        
+        List<AdminStatsDto.DailyTotals> transactionsByDay = new ArrayList<>();
+        LocalDate firstDay = firstDay();
+        for (LocalDate day = firstDay; !day.isAfter(LocalDate.now()); day = day.plusDays(1)) {
+            Map<Transaction.TransactionType, Tally> byType = current.transactionsByDay.get(day);
+            if (byType == null) {
+                continue;
+            }
+            for (Transaction.TransactionType type : Transaction.TransactionType.values()) {
+                Tally tally = byType.get(type);
+                if (tally != null) {
+                    transactionsByDay.add(new AdminStatsDto.DailyTotals(day, type.name(), tally.count, tally.amount));
+                }
+            }
+        }
+        stats.setTransactionsByDay(transactionsByDay);
+        
+        Map<String, AdminStatsDto.Totals> transfersByStatus = new LinkedHashMap<>();
+        for (Transfer.TransferStatus status : Transfer.TransferStatus.values()) {
+            Tally tally = current.transfers.getOrDefault(status, Tally.ZERO);
+            transfersByStatus.put(status.name(), new AdminStatsDto.Totals(tally.count, tally.amount));
+        }
+        stats.setTransfersByStatus(transfersByStatus);
+        
+        stats.setTotalUsers(current.users.get());
+        stats.setLastRollupAt(lastRollupAt);
+        return stats;
+    }
+    
+    /**
+     * Recomputes every counter from the database and swaps them in at once.
+     */
+    @Transactional(readOnly = true)
+    public void rollup() {
+        Counters fresh = new Counters();
+        for (AccountRepository.AccountTypeTotals row : accountRepository.sumBalancesByAccountType()) {
+            fresh.accounts.put(row.getAccountType(), new Tally(row.getEntries(), row.getBalance()));
+        }
+        for (TransactionRepository.DailyTotals row : transactionRepository.sumDailyByTransactionType(firstDay().atStartOfDay())) {
+            fresh.transactionsByDay.computeIfAbsent(row.getEntryDate(), day -> new ConcurrentHashMap<>())
+                .put(row.getTransactionType(), new Tally(row.getEntries(), row.getVolume()));
+        }
+        for (TransferRepository.StatusTotals row : transferRepository.sumByStatus()) {
+            fresh.transfers.put(row.getStatus(), new Tally(row.getEntries(), row.getVolume()));
+        }
+        fresh.users.set(userRepository.count());
+        
+        counters = fresh;
+        lastRollupAt = LocalDateTime.now();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerPosted(LedgerPostedEvent event) {
+        Counters current = counters;
+        LocalDate firstDay = firstDay();
+        for (LedgerPostedEvent.Entry entry : event.getEntries()) {
+            current.accounts.merge(entry.getAccountType(), new Tally(0, entry.getBalanceDelta()), Tally::plus);
+            LocalDate day = entry.getTransactionDate().toLocalDate();
+            if (!day.isBefore(firstDay)) {
+                current.transactionsByDay.computeIfAbsent(day, key -> new ConcurrentHashMap<>())
+                    .merge(entry.getTransactionType(), new Tally(1, entry.getAmount()), Tally::plus);
+            }
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransferStatusChanged(TransferStatusChangedEvent event) {
+        Counters current = counters;
+        if (event.getPreviousStatus() != null) {
+            current.transfers.merge(event.getPreviousStatus(), new Tally(-1, event.getAmount().negate()), Tally::plus);
+        }
+        current.transfers.merge(event.getStatus(), new Tally(1, event.getAmount()), Tally::plus);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountOpened(AccountOpenedEvent event) {
+        counters.accounts.merge(event.getAccountType(), new Tally(1, event.getOpeningBalance()), Tally::plus);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        counters.users.incrementAndGet();
+    }
+    
+    private LocalDate firstDay() {
+        return LocalDate.now().minusDays(days - 1L);
+    }
+    
+    private static final class Counters {
+        private final Map<Account.AccountType, Tally> accounts = new ConcurrentHashMap<>();
+        private final Map<LocalDate, Map<Transaction.TransactionType, Tally>> transactionsByDay = new ConcurrentHashMap<>();
+        private final Map<Transfer.TransferStatus, Tally> transfers = new ConcurrentHashMap<>();
+        private final AtomicLong users = new AtomicLong();
+    }
+    
+    // Immutable so concurrent merges never lose an update
+    private static final class Tally {
+        private static final Tally ZERO = new Tally(0, BigDecimal.ZERO);
+        
+        private final long count;
+        private final BigDecimal amount;
+        
+        private Tally(long count, BigDecimal amount) {
+            this.count = count;
+            this.amount = amount;
+        }
+        
+        private Tally plus(Tally other) {
+            return new Tally(count + other.count, amount.add(other.amount));
+        }
+    }
+}
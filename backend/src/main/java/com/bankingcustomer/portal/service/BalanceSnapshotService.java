@@ -0,0 +1,164 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.BalanceSnapshot;
+import com.bankingcustomer.portal.entity.Transaction;
+import com.bankingcustomer.portal.repository.AccountRepository;
+import com.bankingcustomer.portal.repository.BalanceSnapshotRepository;
+import com.bankingcustomer.portal.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Historical balances and ledger reconciliation from periodic per-account snapshots. A snapshot
+ * folds every entry dated at or before its cutoff into a balance, so a point-in-time balance or
+ * a reconciliation only replays the entries dated after the nearest snapshot.
+ * <p>
+ * Entries are windowed by transaction date rather than by id: ids come from pooled sequences and
+ * are not allocated in commit order across nodes. Cutoffs must therefore lag behind the clock by
+ * more than the longest balance transaction, see {@link BalanceSnapshotWorker}.
+ */
+@Service
+public class BalanceSnapshotService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BalanceSnapshotService.class);
+    
+    @Autowired
+    private BalanceSnapshotRepository snapshotRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    /**
+     * Balance of the account once every ledger entry dated at or before the given time was applied.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalanceAt(Long accountId, LocalDateTime at) {
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + accountId));
+        
+        Optional<BalanceSnapshot> snapshot = snapshotRepository.findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(accountId, at);
+        if (snapshot.isPresent()) {
+            return snapshot.get().getBalance()
+                    .add(transactionRepository.sumBalanceDelta(accountId, snapshot.get().getAsOf(), at).getDelta());
+        }
+        return openingBalance(account).add(transactionRepository.sumBalanceDeltaUpTo(accountId, at).getDelta());
+    }
+    
+    /**
+     * Snapshots every account with ledger entries dated between the previous run's cutoff and
+     * this one, then reconciles each of them. Returns the number of snapshots written.
+     */
+    public int takeSnapshots(LocalDateTime cutoff) {
+        Optional<LocalDateTime> previousCutoff = snapshotRepository.findLatestAsOf();
+        if (previousCutoff.isPresent() && !cutoff.isAfter(previousCutoff.get())) {
+            return 0;
+        }
+        List<Long> accountIds = previousCutoff.isPresent()
+                ? transactionRepository.findAccountIdsWithEntriesBetween(previousCutoff.get(), cutoff)
+                : transactionRepository.findAccountIdsWithEntriesUpTo(cutoff);
+        
+        // One short transaction per account so a large run never holds a long-lived snapshot open
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        int taken = 0;
+        for (Long accountId : accountIds) {
+            try {
+                BalanceSnapshot snapshot = template.execute(status -> snapshotAccount(accountId, cutoff));
+                reconcile(snapshot);
+                taken++;
+            } catch (RuntimeException e) {
+                // The account is picked up again with its next ledger entry
+                logger.warn("Balance snapshot of account {} failed: {}", accountId, e.getMessage());
+            }
+        }
+        return taken;
+    }
+    
+    /**
+     * Checks the stored balance of the account against its latest snapshot plus the ledger
+     * entries dated after it. Returns false (and counts a mismatch) when they disagree.
+     */
+    @Transactional(readOnly = true)
+    public boolean reconcile(Long accountId) {
+        return snapshotRepository.findFirstByAccountIdOrderByAsOfDesc(accountId)
+                .map(this::reconcile)
+                .orElse(true);
+    }
+    
+    private boolean reconcile(BalanceSnapshot snapshot) {
+        AccountRepository.LedgerCheck check = accountRepository.checkLedgerSince(snapshot.getAccountId(), snapshot.getAsOf())
+                .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + snapshot.getAccountId()));
+        BigDecimal expected = snapshot.getBalance().add(check.getLedgerDelta());
+        if (expected.compareTo(check.getBalance()) == 0) {
+            return true;
+        }
+        meterRegistry.counter("portal.reconciler.mismatches").increment();
+        logger.warn("Balance of account {} is {} but its ledger adds up to {}",
+                snapshot.getAccountId(), check.getBalance(), expected);
+        return false;
+    }
+    
+    private BalanceSnapshot snapshotAccount(Long accountId, LocalDateTime cutoff) {
+        Optional<BalanceSnapshot> previous = snapshotRepository.findFirstByAccountIdOrderByAsOfDesc(accountId);
+        if (previous.isPresent() && !previous.get().getAsOf().isBefore(cutoff)) {
+            // Already covered by a run on another node
+            return previous.get();
+        }
+        
+        BigDecimal base;
+        TransactionRepository.LedgerWindow window;
+        if (previous.isPresent()) {
+            base = previous.get().getBalance();
+            window = transactionRepository.sumBalanceDelta(accountId, previous.get().getAsOf(), cutoff);
+        } else {
+            Account account = accountRepository.findById(accountId)
+                    .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + accountId));
+            base = openingBalance(account);
+            window = transactionRepository.sumBalanceDeltaUpTo(accountId, cutoff);
+        }
+        Long lastTransactionId = window.getLastTransactionId() != null || previous.isEmpty()
+                ? window.getLastTransactionId()
+                : previous.get().getLastTransactionId();
+        return snapshotRepository.save(
+                new BalanceSnapshot(accountId, cutoff, lastTransactionId, base.add(window.getDelta())));
+    }
+    
+    /**
+     * Balance before the first ledger entry. Accounts are opened with an initial balance that
+     * has no entry of its own, it is recovered from the first entry's balanceAfter.
+     */
+    private BigDecimal openingBalance(Account account) {
+        Optional<Transaction> first = transactionRepository.findFirstByAccountIdOrderByTransactionDateAscIdAsc(account.getId());
+        if (first.isEmpty()) {
+            return account.getBalance();
+        }
+        if (first.get().getBalanceAfter() != null) {
+            return first.get().getBalanceAfter().subtract(transactionService.balanceDelta(first.get()));
+        }
+        // Legacy entries without balanceAfter, fall back to unwinding the whole ledger
+        return account.getBalance().subtract(transactionRepository.sumBalanceDeltaByAccountId(account.getId()).getDelta());
+    }
+}
@@ -0,0 +1,67 @@
+package com.bankingcustomer.portal.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job taking balance snapshots and reconciling the accounts they cover. The cutoff
+ * trails the clock by the settle lag so entries still in flight when a run starts (dated
+ * before the cutoff but not yet committed) are never left out of a snapshot.
+ */
+@Component
+public class BalanceSnapshotWorker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BalanceSnapshotWorker.class);
+    
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+    
+    @Value("${app.balance-snapshots.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.balance-snapshots.interval-ms:300000}")
+    private long intervalMs;
+    
+    @Value("${app.balance-snapshots.settle-lag-ms:300000}")
+    private long settleLagMs;
+    
+    private ScheduledExecutorService scheduler;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(this::run, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+    
+    private void run() {
+        try {
+            int taken = balanceSnapshotService.takeSnapshots(LocalDateTime.now().minusNanos(settleLagMs * 1_000_000));
+            logger.debug("Took {} balance snapshots", taken);
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the schedule, the next run covers the same window
+            logger.warn("Balance snapshot run failed: {}", e.getMessage());
+        }
+    }
+}
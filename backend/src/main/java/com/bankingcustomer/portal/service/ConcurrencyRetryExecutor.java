@@ -0,0 +1,114 @@
+package com.bankingcustomer.portal.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Runs balance mutations in their own transaction and retries them with jittered
+ * exponential backoff when they lose an optimistic (or lock) conflict.
+ */
+@Component
+public class ConcurrencyRetryExecutor {
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.concurrency.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${app.concurrency.base-backoff-ms:5}")
+    private long baseBackoffMs;
+    
+    @Value("${app.concurrency.max-backoff-ms:200}")
+    private long maxBackoffMs;
+    
+    @Value("${app.concurrency.locking-mode:optimistic}")
+    private String lockingMode;
+    
+    @Value("${app.concurrency.pessimistic-ibans:}")
+    private String pessimisticIbans;
+    
+    private Set<String> hotIbans;
+    
+    /**
+     * Whether mutations of the given accounts should take row locks up front instead of
+     * relying on the version check, either globally or because one of them is a known hot account.
+     */
+    public boolean usePessimisticLocking(String... ibans) {
+        if ("pessimistic".equalsIgnoreCase(lockingMode)) {
+            return true;
+        }
+        Set<String> hot = getHotIbans();
+        return Arrays.stream(ibans).anyMatch(hot::contains);
+    }
+    
+    public <T> T execute(String operation, Supplier<T> work) {
+        // Inside a caller's transaction a retry cannot help, the outer transaction decides
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (RuntimeException e) {
+                if (!isConcurrencyFailure(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("portal.concurrency.retries.exhausted", "operation", operation).increment();
+                    throw e;
+                }
+                meterRegistry.counter("portal.concurrency.retries", "operation", operation).increment();
+                backoff(attempt);
+            }
+        }
+    }
+    
+    private boolean isConcurrencyFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConcurrencyFailureException
+                    || cause instanceof jakarta.persistence.OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void backoff(int attempt) {
+        // Full jitter: sleep a random time up to the exponential ceiling
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying after a concurrent update", e);
+        }
+    }
+    
+    private Set<String> getHotIbans() {
+        if (hotIbans == null) {
+            hotIbans = Arrays.stream(pessimisticIbans.split(","))
+                    .map(String::trim)
+                    .filter(iban -> !iban.isEmpty())
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+        return hotIbans;
+    }
+}
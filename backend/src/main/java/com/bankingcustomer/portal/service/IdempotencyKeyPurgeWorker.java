@@ -0,0 +1,72 @@
+package com.bankingcustomer.portal.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job deleting expired idempotency keys in bounded batches, so the table only holds
+ * the keys a client may still retry with.
+ */
+@Component
+public class IdempotencyKeyPurgeWorker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyKeyPurgeWorker.class);
+    
+    @Autowired
+    private TransferIdempotencyService transferIdempotencyService;
+    
+    @Value("${app.idempotency.purge-enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.idempotency.purge-interval-ms:3600000}")
+    private long intervalMs;
+    
+    @Value("${app.idempotency.purge-batch-size:1000}")
+    private int batchSize;
+    
+    private ScheduledExecutorService scheduler;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(this::run, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+    
+    private void run() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int purged = 0;
+            int deleted;
+            do {
+                deleted = transferIdempotencyService.purgeExpiredKeys(now, batchSize);
+                purged += deleted;
+            } while (deleted == batchSize);
+            logger.debug("Purged {} expired idempotency keys", purged);
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the schedule, the next run picks up what is left
+            logger.warn("Idempotency key purge failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.bankingcustomer.portal.service;
+
+/**
+ * An Idempotency-Key was sent again with a request that differs from the one it was first used
+ * with. Still an invalid argument for callers that do not tell the two apart.
+ */
+public class IdempotencyKeyReuseException extends IllegalArgumentException {
+    
+    public IdempotencyKeyReuseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,153 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.dto.transaction.TransactionDto;
+import com.bankingcustomer.portal.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes transaction history straight from a database cursor to the response. Rows are read as
+ * DTO projections (nothing is attached to the persistence context) in fetch-size chunks and
+ * written one at a time, so memory use does not depend on the number of rows exported.
+ */
+@Service
+public class TransactionExportService {
+    
+    public enum Format {
+        NDJSON, CSV
+    }
+    
+    private static final int FLUSH_EVERY = 1000;
+    private static final String CSV_HEADER =
+        "id,transactionDate,transactionType,amount,fee,balanceAfter,accountIban,referenceNumber,description";
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private final TransactionTemplate readOnlyTransaction;
+    
+    public TransactionExportService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    public static Format parseFormat(String format) {
+        try {
+            return Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+    
+    public long exportAll(Format format, OutputStream out) {
+        return export(format, out, () -> transactionRepository.streamAllDtos());
+    }
+    
+    public long exportForUser(Long userId, Format format, OutputStream out) {
+        return export(format, out, () -> transactionRepository.streamDtosByUserId(userId));
+    }
+    
+    // The stream holds an open cursor, so it has to be consumed inside the transaction
+    private long export(Format format, OutputStream out, Supplier<Stream<TransactionDto>> rows) {
+        Long written = readOnlyTransaction.execute(status -> {
+            try (Stream<TransactionDto> stream = rows.get()) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                long count = format == Format.CSV
+                    ? writeCsv(stream.iterator(), writer)
+                    : writeNdjson(stream.iterator(), writer);
+                writer.flush();
+                return count;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return written == null ? 0 : written;
+    }
+    
+    private long writeNdjson(Iterator<TransactionDto> rows, Writer writer) throws IOException {
+        long count = 0;
+        SequenceWriter sequence = objectMapper.writerFor(TransactionDto.class)
+            .withRootValueSeparator("\n")
+            .writeValues(writer);
+        while (rows.hasNext()) {
+            sequence.write(rows.next());
+            if (++count % FLUSH_EVERY == 0) {
+                sequence.flush();
+            }
+        }
+        if (count > 0) {
+            writer.write('\n');
+        }
+        sequence.flush();
+        return count;
+    }
+    
+    private long writeCsv(Iterator<TransactionDto> rows, Writer writer) throws IOException {
+        long count = 0;
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            TransactionDto row = rows.next();
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getTransactionDate()));
+            writer.write(',');
+            writer.write(row.getTransactionType());
+            writer.write(',');
+            writer.write(csvNumber(row.getAmount()));
+            writer.write(',');
+            writer.write(csvNumber(row.getFee()));
+            writer.write(',');
+            writer.write(csvNumber(row.getBalanceAfter()));
+            writer.write(',');
+            writer.write(csvText(row.getAccountIban()));
+            writer.write(',');
+            writer.write(csvText(row.getReferenceNumber()));
+            writer.write(',');
+            writer.write(csvText(row.getDescription()));
+            writer.write('\n');
+            if (++count % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        return count;
+    }
+    
+    private static String csvNumber(BigDecimal value) {
+        return value == null ? "" : value.toPlainString();
+    }
+    
+    private static String csvText(String value) {
+        if (value == null) {
+            return "";
+        }
+        // Descriptions are user input; spreadsheets evaluate cells starting like a formula, so
+        // those are prefixed with a quote to be read as text (OWASP CSV injection guidance)
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,17 +1,27 @@
 package com.bankingcustomer.portal.service;
 
+import com.bankingcustomer.portal.dto.CursorPage;
+import com.bankingcustomer.portal.dto.transaction.TransactionDto;
 import com.bankingcustomer.portal.entity.Account;
 import com.bankingcustomer.portal.entity.Transaction;
+import com.bankingcustomer.portal.event.LedgerPostedEvent;
+import com.bankingcustomer.portal.repository.AccountRepository;
 import com.bankingcustomer.portal.repository.TransactionRepository;
+import com.bankingcustomer.portal.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,85 +33,156 @@ public class TransactionService {
     private TransactionRepository transactionRepository;
     
     @Autowired
-    private AccountService accountService;
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private ConcurrencyRetryExecutor retryExecutor;
+    
+    @Autowired
+    private AccountLanes accountLanes;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
     
     private static final BigDecimal TRANSACTION_FEE_RATE = new BigDecimal("0.005"); // 0.5%
     private static final BigDecimal MIN_FEE = new BigDecimal("0.10");
     private static final BigDecimal MAX_FEE = new BigDecimal("10.00");
+    private static final int MAX_PAGE_SIZE = 100;
     
-    public List<Transaction> getAllTransactions() {
-        return transactionRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<TransactionDto> getAllTransactionDtos() {
+        return transactionRepository.findAllDtos();
     }
     
+    @Transactional(readOnly = true)
     public Optional<Transaction> getTransactionById(Long id) {
-        return transactionRepository.findById(id);
+        return transactionRepository.findWithAccountById(id);
     }
     
+    @Transactional(readOnly = true)
     public List<Transaction> getTransactionsByAccount(Account account) {
         return transactionRepository.findByAccount(account);
     }
     
-    public Page<Transaction> getTransactionsByAccount(Account account, Pageable pageable) {
-        return transactionRepository.findByAccountOrderByTransactionDateDesc(account, pageable);
+    @Transactional(readOnly = true)
+    public CursorPage<Transaction> getTransactionsByAccount(Long accountId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // One extra row tells whether there is a next page without a count query
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Transaction> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = transactionRepository.findPageByAccountId(accountId, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = transactionRepository.findPageByAccountIdAfter(accountId, after.getTimestamp(), after.getId(), limit);
+        }
+        return CursorPage.of(rows, pageSize, t -> new KeysetCursor(t.getTransactionDate(), t.getId()));
     }
     
+    @Transactional(readOnly = true)
     public List<Transaction> getTransactionsByAccountId(Long accountId) {
         return transactionRepository.findByAccountIdOrderByTransactionDateDesc(accountId);
     }
     
-    public List<Transaction> getTransactionsByUserId(Long userId) {
-        return transactionRepository.findByUserId(userId);
+    @Transactional(readOnly = true)
+    public List<TransactionDto> getTransactionDtosByUserId(Long userId) {
+        return transactionRepository.findDtosByUserId(userId);
     }
     
+    @Transactional(readOnly = true)
     public List<Transaction> getTransactionsByDateRange(Long accountId, LocalDateTime startDate, LocalDateTime endDate) {
         return transactionRepository.findByAccountIdAndDateRange(accountId, startDate, endDate);
     }
     
+    @Transactional(readOnly = true)
     public Optional<Transaction> getTransactionByReferenceNumber(String referenceNumber) {
-        return transactionRepository.findByReferenceNumber(referenceNumber);
+        return transactionRepository.findWithAccountByReferenceNumber(referenceNumber);
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Transaction createTransaction(Transaction transaction) {
+        return accountLanes.runInLanes(List.of(transaction.getAccount().getId()),
+                () -> retryExecutor.execute("createTransaction", () -> applyTransaction(transaction)));
+    }
+    
+    private Transaction applyTransaction(Transaction transaction) {
+        // A retried attempt starts from a clean entity
+        transaction.setId(null);
+        
         // Calculate fee if it's a transfer transaction
         if (transaction.getTransactionType() == Transaction.TransactionType.TRANSFER_OUT) {
             BigDecimal fee = calculateTransactionFee(transaction.getAmount());
             transaction.setFee(fee);
         }
         
-        // Update account balance
-        Account account = transaction.getAccount();
-        BigDecimal currentBalance = account.getBalance();
-        BigDecimal newBalance;
+        // Update account balance in a single statement, the database rejects overdrafts
+        Long accountId = transaction.getAccount().getId();
+        BigDecimal newBalance = accountRepository.addToBalance(accountId, balanceDelta(transaction))
+                .orElseThrow(() -> accountRepository.existsById(accountId)
+                        ? new IllegalArgumentException("Insufficient balance for transaction")
+                        : new IllegalArgumentException("Account not found with id: " + accountId));
+        // The update bypassed the persistence context; a caller's managed copy, such as the
+        // account of a transaction being reversed, is reloaded so it carries the new balance and version
+        if (entityManager.contains(transaction.getAccount())) {
+            entityManager.refresh(transaction.getAccount());
+        }
         
+        transaction.setBalanceAfter(newBalance);
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        publishLedgerPosted(List.of(savedTransaction));
+        return savedTransaction;
+    }
+    
+    /**
+     * Announces ledger entries written by the current transaction; listeners see them once it commits.
+     */
+    public void publishLedgerPosted(Collection<Transaction> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<LedgerPostedEvent.Entry> posted = entries.stream()
+            .map(entry -> new LedgerPostedEvent.Entry(entry.getAccount().getId(), entry.getAccount().getUser().getId(),
+                entry.getAccount().getAccountType(), entry.getTransactionType(), entry.getTransactionDate(),
+                entry.getAmount(), entry.getFee(), balanceDelta(entry), entry.getBalanceAfter(), toDto(entry)))
+            .toList();
+        eventPublisher.publishEvent(new LedgerPostedEvent(posted));
+    }
+    
+    /**
+     * Signed amount the transaction moves on its account balance (fees included).
+     */
+    public BigDecimal balanceDelta(Transaction transaction) {
         switch (transaction.getTransactionType()) {
             case CREDIT:
             case TRANSFER_IN:
-                newBalance = currentBalance.add(transaction.getAmount());
-                break;
+                return transaction.getAmount();
             case DEBIT:
             case TRANSFER_OUT:
-                BigDecimal totalDebit = transaction.getAmount().add(transaction.getFee());
-                if (currentBalance.compareTo(totalDebit) < 0) {
-                    throw new IllegalArgumentException("Insufficient balance for transaction");
-                }
-                newBalance = currentBalance.subtract(totalDebit);
-                break;
+                return transaction.getAmount().add(transaction.getFee()).negate();
             case FEE:
-                newBalance = currentBalance.subtract(transaction.getAmount());
-                break;
+                return transaction.getAmount().negate();
             default:
-                newBalance = currentBalance;
+                return BigDecimal.ZERO;
         }
+    }
+    
+    /**
+     * Computes the balance resulting from applying the transaction to the in-memory
+     * balance of its account and records it as balanceAfter. Nothing is persisted.
+     */
+    public BigDecimal applyBalanceChange(Transaction transaction) {
+        BigDecimal delta = balanceDelta(transaction);
+        BigDecimal newBalance = transaction.getAccount().getBalance().add(delta);
         
-        transaction.setBalanceAfter(newBalance);
-        
-        // Save transaction first
-        Transaction savedTransaction = transactionRepository.save(transaction);
-        
-        // Update account balance
-        accountService.updateAccountBalance(account.getId(), newBalance);
+        if (delta.signum() < 0 && newBalance.signum() < 0) {
+            throw new IllegalArgumentException("Insufficient balance for transaction");
+        }
         
-        return savedTransaction;
+        transaction.setBalanceAfter(newBalance);
+        return newBalance;
     }
     
     public BigDecimal calculateTransactionFee(BigDecimal amount) {
@@ -121,16 +202,19 @@ public class TransactionService {
         return fee;
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Transaction createCreditTransaction(Account account, BigDecimal amount, String description) {
         Transaction transaction = new Transaction(amount, Transaction.TransactionType.CREDIT, account, description);
         return createTransaction(transaction);
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Transaction createDebitTransaction(Account account, BigDecimal amount, String description) {
         Transaction transaction = new Transaction(amount, Transaction.TransactionType.DEBIT, account, description);
         return createTransaction(transaction);
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Transaction createFeeTransaction(Account account, BigDecimal feeAmount, String description) {
         Transaction transaction = new Transaction(feeAmount, Transaction.TransactionType.FEE, account, description);
         transaction.setFee(BigDecimal.ZERO); // Fee transactions don't have additional fees
@@ -176,7 +260,22 @@ public class TransactionService {
         return createTransaction(reverseTransaction);
     }
     
+    @Transactional(readOnly = true)
     public long getTransactionCount(Long accountId) {
         return transactionRepository.countTransactionsByAccountId(accountId);
     }
+    
+    private TransactionDto toDto(Transaction transaction) {
+        return new TransactionDto(
+            transaction.getId(),
+            transaction.getAmount(),
+            transaction.getTransactionType().name(),
+            transaction.getTransactionDate(),
+            transaction.getFee(),
+            transaction.getReferenceNumber(),
+            transaction.getDescription(),
+            transaction.getBalanceAfter(),
+            transaction.getAccount().getIban()
+        );
+    }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.dto.transfer.TransferBatchLineResult;
+import com.bankingcustomer.portal.dto.transfer.TransferBatchReport;
+import com.bankingcustomer.portal.entity.Transfer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executes large transfer files chunk by chunk. While one chunk is being settled the next
+ * one is parsed from the request, so at most two chunks are held in memory at any time.
+ * Chunks settle one after another on a single thread: lines are checked against the balances
+ * left by the lines before them, so chunks debiting the same account cannot overlap.
+ */
+@Service
+public class TransferBatchService {
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Value("${app.transfers.batch.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${app.transfers.batch.max-lines:200000}")
+    private int maxLines;
+    
+    private ExecutorService chunkExecutor;
+    
+    @PostConstruct
+    void init() {
+        chunkExecutor = Executors.newSingleThreadExecutor();
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        chunkExecutor.shutdown();
+    }
+    
+    /**
+     * Executes the transfers in order. When ownerId is set, every line must debit an
+     * account owned by that user.
+     */
+    public TransferBatchReport executeBatch(Iterator<Transfer> transfers, Long ownerId) {
+        TransferBatchReport report = new TransferBatchReport();
+        CompletableFuture<List<TransferBatchLineResult>> inFlight = null;
+        List<Transfer> chunk = new ArrayList<>(chunkSize);
+        int lineCount = 0;
+        
+        try {
+            while (transfers.hasNext()) {
+                if (lineCount >= maxLines) {
+                    report.setError("Batch exceeds the maximum of " + maxLines + " transfers, remaining lines were skipped");
+                    break;
+                }
+                chunk.add(transfers.next());
+                lineCount++;
+                
+                if (chunk.size() == chunkSize) {
+                    inFlight = submit(report, inFlight, chunk, lineCount - chunk.size() + 1, ownerId);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Malformed input: keep what was already settled and stop at the broken line
+            report.setError("Batch aborted at line " + (lineCount + 1) + ": " + e.getMessage());
+        }
+        
+        if (!chunk.isEmpty()) {
+            inFlight = submit(report, inFlight, chunk, lineCount - chunk.size() + 1, ownerId);
+        }
+        collect(report, inFlight);
+        
+        return report;
+    }
+    
+    private CompletableFuture<List<TransferBatchLineResult>> submit(TransferBatchReport report,
+                                                                    CompletableFuture<List<TransferBatchLineResult>> previous,
+                                                                    List<Transfer> chunk, int firstLine, Long ownerId) {
+        // The previous chunk must finish before the next starts, parsing is what overlaps settling
+        collect(report, previous);
+        return CompletableFuture.supplyAsync(() -> executeChunk(chunk, firstLine, ownerId), chunkExecutor);
+    }
+    
+    private List<TransferBatchLineResult> executeChunk(List<Transfer> chunk, int firstLine, Long ownerId) {
+        try {
+            return transferService.executeTransferChunk(chunk, firstLine, ownerId);
+        } catch (RuntimeException e) {
+            // The chunk was rolled back as a whole
+            List<TransferBatchLineResult> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(TransferBatchLineResult.failed(firstLine + i, "Chunk failed: " + e.getMessage()));
+            }
+            return results;
+        }
+    }
+    
+    private void collect(TransferBatchReport report, CompletableFuture<List<TransferBatchLineResult>> future) {
+        if (future != null) {
+            report.addResults(future.join());
+        }
+    }
+}
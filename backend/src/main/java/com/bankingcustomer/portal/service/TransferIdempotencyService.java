@@ -0,0 +1,189 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.entity.IdempotencyKey;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.repository.IdempotencyKeyRepository;
+import com.bankingcustomer.portal.repository.TransferRepository;
+import com.bankingcustomer.portal.util.Digests;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Deduplicates transfer executions by client supplied Idempotency-Key. Completed results are
+ * kept in a bounded LRU cache in front of the idempotency_keys table; a duplicate that arrives
+ * while the original is still running waits for it instead of executing again. Each key stores a
+ * fingerprint of its request, so reusing it for a different transfer is rejected rather than
+ * answered with the first one, and is honoured for at least the configured TTL. Cached results
+ * expire with their stored key, so every node stops replaying a key once the database has.
+ */
+@Service
+public class TransferIdempotencyService {
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    
+    @Value("${app.idempotency.cache-size:10000}")
+    private int cacheSize;
+    
+    @Value("${app.idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+    
+    @Value("${app.idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+    
+    private final Map<String, CompletableFuture<Outcome>> inFlight = new ConcurrentHashMap<>();
+    
+    private Map<String, Outcome> completed;
+    
+    @PostConstruct
+    void init() {
+        completed = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Outcome> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+    
+    /**
+     * @throws IdempotencyKeyReuseException when the key was first used with a different request
+     */
+    public Transfer executeTransfer(Long userId, String idempotencyKey, Transfer transfer) {
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must not exceed " + MAX_KEY_LENGTH + " characters");
+        }
+        String cacheKey = userId + ":" + idempotencyKey;
+        String requestHash = fingerprint(transfer);
+        
+        Outcome cached = completed.get(cacheKey);
+        if (cached != null) {
+            if (!cached.isExpired(LocalDateTime.now())) {
+                return cached.matching(requestHash);
+            }
+            completed.remove(cacheKey, cached);
+        }
+        
+        CompletableFuture<Outcome> execution = new CompletableFuture<>();
+        CompletableFuture<Outcome> running = inFlight.putIfAbsent(cacheKey, execution);
+        if (running != null) {
+            return await(running).matching(requestHash);
+        }
+        
+        try {
+            Outcome result = findStored(userId, idempotencyKey)
+                    .orElseGet(() -> executeOrRecover(userId, idempotencyKey, requestHash, transfer));
+            completed.put(cacheKey, result);
+            execution.complete(result);
+            return result.matching(requestHash);
+        } catch (RuntimeException e) {
+            // Failed executions are not remembered, the client may retry with the same key
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, execution);
+        }
+    }
+    
+    /**
+     * Deletes up to {@code limit} keys that expired before {@code now}.
+     *
+     * @return the number of keys deleted
+     */
+    @Transactional
+    public int purgeExpiredKeys(LocalDateTime now, int limit) {
+        return idempotencyKeyRepository.deleteExpired(now, limit);
+    }
+    
+    private Outcome executeOrRecover(Long userId, String idempotencyKey, String requestHash, Transfer transfer) {
+        IdempotencyKey key = new IdempotencyKey(userId, idempotencyKey, requestHash,
+                LocalDateTime.now().plusNanos(ttlMs * 1_000_000));
+        try {
+            return new Outcome(requestHash, key.getExpiresAt(), transferService.executeTransfer(transfer, key));
+        } catch (DataIntegrityViolationException e) {
+            // Another node stored the same key first and this attempt was rolled back
+            return findStored(userId, idempotencyKey).orElseThrow(() -> e);
+        }
+    }
+    
+    private Optional<Outcome> findStored(Long userId, String idempotencyKey) {
+        return idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+                .flatMap(key -> transferRepository.findById(key.getTransferId())
+                        .map(transfer -> new Outcome(key.getRequestHash(), key.getExpiresAt(), transfer)));
+    }
+    
+    // Amounts are compared by value, so 10 and 10.00 are the same request
+    private static String fingerprint(Transfer transfer) {
+        BigDecimal amount = transfer.getAmount();
+        return Digests.sha256Hex(
+            amount != null ? amount.stripTrailingZeros().toPlainString() : null,
+            transfer.getFromIban(), transfer.getToIban(), transfer.getBeneficiaryName(), transfer.getDescription());
+    }
+    
+    private Outcome await(CompletableFuture<Outcome> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Original request failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for the original request with the same Idempotency-Key");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request", e);
+        }
+    }
+    
+    private static class Outcome {
+        
+        private final String requestHash;
+        
+        private final LocalDateTime expiresAt;
+        
+        private final Transfer transfer;
+        
+        Outcome(String requestHash, LocalDateTime expiresAt, Transfer transfer) {
+            this.requestHash = requestHash;
+            this.expiresAt = expiresAt;
+            this.transfer = transfer;
+        }
+        
+        // Same rule as the purge, which deletes keys whose expiry is before now
+        boolean isExpired(LocalDateTime now) {
+            return expiresAt != null && expiresAt.isBefore(now);
+        }
+        
+        // Keys stored before fingerprints were recorded cannot be checked and are accepted
+        Transfer matching(String requestHash) {
+            if (this.requestHash != null && !this.requestHash.equals(requestHash)) {
+                throw new IdempotencyKeyReuseException("Idempotency-Key was already used for a different transfer");
+            }
+            return transfer;
+        }
+    }
+}
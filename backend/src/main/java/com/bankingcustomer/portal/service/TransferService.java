@@ -1,19 +1,36 @@
 package com.bankingcustomer.portal.service;
 
+import com.bankingcustomer.portal.dto.CursorPage;
+import com.bankingcustomer.portal.dto.transfer.TransferBatchLineResult;
+import com.bankingcustomer.portal.dto.transfer.TransferDto;
 import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.IdempotencyKey;
 import com.bankingcustomer.portal.entity.Transaction;
 import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.event.TransferStatusChangedEvent;
+import com.bankingcustomer.portal.repository.AccountRepository;
+import com.bankingcustomer.portal.repository.IdempotencyKeyRepository;
+import com.bankingcustomer.portal.repository.TransactionRepository;
 import com.bankingcustomer.portal.repository.TransferRepository;
+import com.bankingcustomer.portal.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @Transactional
@@ -22,116 +39,359 @@ public class TransferService {
     @Autowired
     private TransferRepository transferRepository;
     
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
     @Autowired
     private AccountService accountService;
     
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    
     @Autowired
     private TransactionService transactionService;
     
-    public List<Transfer> getAllTransfers() {
-        return transferRepository.findAll();
+    @Autowired
+    private ConcurrencyRetryExecutor retryExecutor;
+    
+    @Autowired
+    private AccountLanes accountLanes;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    private static final int MAX_CACHED_ACCOUNT_IDS = 100_000;
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    // Only used to pick lane stripes, never to load or update an account. Entries are not dropped
+    // when an account is closed or deleted: a stale id only picks a different stripe, and the row
+    // locks or version checks in applyTransfer still keep balances correct. Once the cap is reached
+    // further IBANs are looked up on every transfer instead of being cached
+    private final Map<String, Long> accountIdsByIban = new ConcurrentHashMap<>();
+    
+    @Transactional(readOnly = true)
+    public List<TransferDto> getAllTransferDtos() {
+        return transferRepository.findAllDtos();
     }
     
     public Optional<Transfer> getTransferById(Long id) {
-        return transferRepository.findById(id);
+        return transferRepository.findWithAccountsById(id);
     }
     
+    @Transactional(readOnly = true)
     public List<Transfer> getTransfersByAccountId(Long accountId) {
         return transferRepository.findByAccountId(accountId);
     }
     
-    public Page<Transfer> getTransfersByUserId(Long userId, Pageable pageable) {
-        return transferRepository.findByUserId(userId, pageable);
+    @Transactional(readOnly = true)
+    public CursorPage<Transfer> getTransfersByUserId(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // One extra row tells whether there is a next page without a count query
+        List<Transfer> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = transferRepository.findPageByUserId(userId, pageSize + 1);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = transferRepository.findPageByUserIdAfter(userId, after.getTimestamp(), after.getId(), pageSize + 1);
+        }
+        return CursorPage.of(rows, pageSize, t -> new KeysetCursor(t.getCreatedAt(), t.getId()));
     }
     
+    @Transactional(readOnly = true)
     public Optional<Transfer> getTransferByReferenceNumber(String referenceNumber) {
-        return transferRepository.findByReferenceNumber(referenceNumber);
+        return transferRepository.findWithAccountsByReferenceNumber(referenceNumber);
     }
     
+    @Transactional(readOnly = true)
     public List<Transfer> getTransfersByStatus(Transfer.TransferStatus status) {
         return transferRepository.findByStatus(status);
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Transfer executeTransfer(Transfer transfer) {
+        return executeTransfer(transfer, null);
+    }
+    
+    /**
+     * Executes the transfer and, when an idempotency key is given, records it for the transfer in
+     * the same transaction. A key already stored by a concurrent request fails the unique
+     * constraint and rolls the whole transfer back.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Transfer executeTransfer(Transfer transfer, IdempotencyKey idempotencyKey) {
         // Validate transfer
         validateTransfer(transfer);
         
-        // Get accounts
-        Account fromAccount = accountService.getAccountByIban(transfer.getFromIban())
-                .orElseThrow(() -> new IllegalArgumentException("Source account not found: " + transfer.getFromIban()));
+        // Serialize per account in-process first, so waiting happens here rather than on the row lock
+        List<Long> accountIds = Arrays.asList(resolveAccountId(transfer.getFromIban()), resolveAccountId(transfer.getToIban()));
+        return accountLanes.runInLanes(accountIds,
+                () -> retryExecutor.execute("executeTransfer", () -> applyTransfer(transfer, idempotencyKey)));
+    }
+    
+    private Long resolveAccountId(String iban) {
+        // IBANs never change account, so the mapping can be cached; unknown (external) IBANs yield null
+        Long cached = accountIdsByIban.get(iban);
+        if (cached != null) {
+            return cached;
+        }
+        // Looked up in its own transaction so no connection is held while waiting for a lane
+        Long accountId = accountService.getAccountIdByIban(iban).orElse(null);
+        if (accountId != null && accountIdsByIban.size() < MAX_CACHED_ACCOUNT_IDS) {
+            accountIdsByIban.put(iban, accountId);
+        }
+        return accountId;
+    }
+    
+    private Transfer applyTransfer(Transfer transfer, IdempotencyKey idempotencyKey) {
+        // A retried attempt starts from a clean entity
+        transfer.setId(null);
+        
+        // Load both accounts in one statement, in IBAN order
+        Map<String, Account> accounts = loadAccounts(transfer.getFromIban(), transfer.getToIban());
         
-        Optional<Account> toAccountOpt = accountService.getAccountByIban(transfer.getToIban());
+        List<Transaction> entries = new ArrayList<>(3);
+        Transfer savedTransfer = settleTransfer(transfer, accounts, null, entries);
+        
+        // Ledger rows go out in one saveAll, account balances are flushed by dirty checking at commit
+        transactionRepository.saveAll(entries);
+        transactionService.publishLedgerPosted(entries);
+        publishStatusChange(savedTransfer, null);
+        
+        if (idempotencyKey != null) {
+            idempotencyKey.setId(null);
+            idempotencyKey.setTransferId(savedTransfer.getId());
+            idempotencyKeyRepository.save(idempotencyKey);
+        }
+        
+        return savedTransfer;
+    }
+    
+    /**
+     * Validates the transfer and stores it as pending; the settlement workers move the money.
+     */
+    public Transfer submitTransfer(Transfer transfer) {
+        // Validate transfer
+        validateTransfer(transfer);
+        
+        Map<String, Account> accounts = new HashMap<>(4);
+        for (Account account : accountRepository.findByIbanIn(List.of(transfer.getFromIban(), transfer.getToIban()))) {
+            accounts.put(account.getIban(), account);
+        }
+        
+        Account fromAccount = accounts.get(transfer.getFromIban());
+        if (fromAccount == null) {
+            throw new IllegalArgumentException("Source account not found: " + transfer.getFromIban());
+        }
+        
+        if (!Boolean.TRUE.equals(fromAccount.getIsActive())) {
+            throw new IllegalArgumentException("Source account is not active: " + transfer.getFromIban());
+        }
         
-        // Calculate fee
         BigDecimal transferFee = transactionService.calculateTransactionFee(transfer.getAmount());
         transfer.setTransferFee(transferFee);
         transfer.setFromAccount(fromAccount);
+        transfer.setToAccount(accounts.get(transfer.getToIban()));
+        
+        // Early rejection only, the balance is checked again under lock at settlement
+        BigDecimal totalDebit = transfer.getAmount().add(transferFee);
+        if (fromAccount.getBalance().compareTo(totalDebit) < 0) {
+            throw new IllegalArgumentException("Insufficient balance for transfer. Required: " + totalDebit + ", Available: " + fromAccount.getBalance());
+        }
+        
+        transfer.setStatus(Transfer.TransferStatus.PENDING);
+        Transfer savedTransfer = transferRepository.save(transfer);
+        publishStatusChange(savedTransfer, null);
+        return savedTransfer;
+    }
+    
+    /**
+     * Claims up to limit pending transfers, passing over rows held by other workers or nodes,
+     * and settles them in one transaction. Returns the number of transfers claimed.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int settlePendingTransfers(int limit) {
+        return retryExecutor.execute("settlePendingTransfers", () -> applyPendingTransfers(limit));
+    }
+    
+    private int applyPendingTransfers(int limit) {
+        List<Transfer> claimed = transferRepository.claimByStatus(Transfer.TransferStatus.PENDING, PageRequest.of(0, limit));
+        if (claimed.isEmpty()) {
+            return 0;
+        }
         
-        if (toAccountOpt.isPresent()) {
-            transfer.setToAccount(toAccountOpt.get());
+        Set<String> ibans = new TreeSet<>();
+        for (Transfer transfer : claimed) {
+            ibans.add(transfer.getFromIban());
+            ibans.add(transfer.getToIban());
         }
         
+        Map<String, Account> accounts = new HashMap<>(ibans.size() * 2);
+        for (Account account : accountRepository.findByIbanInForUpdate(ibans)) {
+            accounts.put(account.getIban(), account);
+        }
+        
+        List<Transaction> entries = new ArrayList<>(claimed.size() * 3);
+        for (Transfer transfer : claimed) {
+            try {
+                settleTransfer(transfer, accounts, null, entries);
+            } catch (IllegalArgumentException e) {
+                transfer.setStatus(Transfer.TransferStatus.FAILED);
+                transfer.setProcessedAt(LocalDateTime.now());
+            }
+            publishStatusChange(transfer, Transfer.TransferStatus.PENDING);
+        }
+        
+        transactionRepository.saveAll(entries);
+        transactionService.publishLedgerPosted(entries);
+        
+        return claimed.size();
+    }
+    
+    /**
+     * Executes one chunk of a batch in a single transaction. Every distinct IBAN of the chunk
+     * is loaded and locked by one statement; lines that fail validation are reported and
+     * skipped without affecting the rest of the chunk.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TransferBatchLineResult> executeTransferChunk(List<Transfer> transfers, int firstLine, Long ownerId) {
+        return retryExecutor.execute("executeTransferChunk", () -> applyTransferChunk(transfers, firstLine, ownerId));
+    }
+    
+    private List<TransferBatchLineResult> applyTransferChunk(List<Transfer> transfers, int firstLine, Long ownerId) {
+        Set<String> ibans = new TreeSet<>();
+        for (Transfer transfer : transfers) {
+            if (transfer.getFromIban() != null) {
+                ibans.add(transfer.getFromIban());
+            }
+            if (transfer.getToIban() != null) {
+                ibans.add(transfer.getToIban());
+            }
+        }
+        
+        Map<String, Account> accounts = new HashMap<>(ibans.size() * 2);
+        for (Account account : accountRepository.findByIbanInForUpdate(ibans)) {
+            accounts.put(account.getIban(), account);
+        }
+        
+        List<TransferBatchLineResult> results = new ArrayList<>(transfers.size());
+        List<Transaction> entries = new ArrayList<>(transfers.size() * 3);
+        int line = firstLine;
+        for (Transfer transfer : transfers) {
+            // A retried attempt starts from a clean entity
+            transfer.setId(null);
+            try {
+                validateTransfer(transfer);
+                Transfer savedTransfer = settleTransfer(transfer, accounts, ownerId, entries);
+                publishStatusChange(savedTransfer, null);
+                results.add(TransferBatchLineResult.completed(line, savedTransfer.getId(), savedTransfer.getReferenceNumber()));
+            } catch (IllegalArgumentException e) {
+                results.add(TransferBatchLineResult.failed(line, e.getMessage()));
+            }
+            line++;
+        }
+        
+        transactionRepository.saveAll(entries);
+        transactionService.publishLedgerPosted(entries);
+        
+        return results;
+    }
+    
+    /**
+     * Checks the transfer against the loaded accounts, persists it as completed and applies
+     * debit, fee and credit to the accounts in memory, collecting the ledger entries.
+     */
+    private Transfer settleTransfer(Transfer transfer, Map<String, Account> accounts, Long ownerId,
+                                    List<Transaction> entries) {
+        Account fromAccount = accounts.get(transfer.getFromIban());
+        if (fromAccount == null) {
+            throw new IllegalArgumentException("Source account not found: " + transfer.getFromIban());
+        }
+        
+        if (ownerId != null && !fromAccount.getUser().getId().equals(ownerId)) {
+            throw new IllegalArgumentException("Access denied - You can only transfer from your own accounts");
+        }
+        
+        if (!Boolean.TRUE.equals(fromAccount.getIsActive())) {
+            throw new IllegalArgumentException("Source account is not active: " + transfer.getFromIban());
+        }
+        
+        Account toAccount = accounts.get(transfer.getToIban());
+        
+        // Calculate fee
+        BigDecimal transferFee = transactionService.calculateTransactionFee(transfer.getAmount());
+        transfer.setTransferFee(transferFee);
+        transfer.setFromAccount(fromAccount);
+        transfer.setToAccount(toAccount);
+        
         // Check sufficient balance (amount + fee)
         BigDecimal totalDebit = transfer.getAmount().add(transferFee);
-        if (!accountService.hasSufficientBalance(transfer.getFromIban(), totalDebit)) {
+        if (fromAccount.getBalance().compareTo(totalDebit) < 0) {
             transfer.setStatus(Transfer.TransferStatus.FAILED);
-            Transfer savedTransfer = transferRepository.save(transfer);
             throw new IllegalArgumentException("Insufficient balance for transfer. Required: " + totalDebit + ", Available: " + fromAccount.getBalance());
         }
         
         try {
-            // Save transfer as pending first
-            transfer.setStatus(Transfer.TransferStatus.PENDING);
+            // The whole transfer commits or rolls back as one unit, so it is persisted as completed directly
+            transfer.setStatus(Transfer.TransferStatus.COMPLETED);
+            transfer.setProcessedAt(LocalDateTime.now());
             Transfer savedTransfer = transferRepository.save(transfer);
             
-            // Create debit transaction for sender (amount + fee)
-            Transaction debitTransaction = new Transaction(
-                transfer.getAmount(),
-                Transaction.TransactionType.TRANSFER_OUT,
-                fromAccount,
-                "Transfer to " + transfer.getToIban() + " - " + transfer.getDescription()
-            );
-            debitTransaction.setTransfer(savedTransfer);
-            transactionService.createTransaction(debitTransaction);
+            // Apply debit, fee and credit to the loaded accounts in memory
+            entries.add(ledgerEntry(savedTransfer, "OUT", transfer.getAmount(), Transaction.TransactionType.TRANSFER_OUT,
+                fromAccount, "Transfer to " + transfer.getToIban() + " - " + transfer.getDescription()));
             
-            // Create fee transaction if fee > 0
             if (transferFee.compareTo(BigDecimal.ZERO) > 0) {
-                Transaction feeTransaction = new Transaction(
-                    transferFee,
-                    Transaction.TransactionType.FEE,
-                    fromAccount,
-                    "Transfer fee for " + transfer.getReferenceNumber()
-                );
-                feeTransaction.setTransfer(savedTransfer);
-                transactionService.createTransaction(feeTransaction);
+                entries.add(ledgerEntry(savedTransfer, "FEE", transferFee, Transaction.TransactionType.FEE,
+                    fromAccount, "Transfer fee for " + savedTransfer.getReferenceNumber()));
             }
             
-            // Create credit transaction for receiver (if internal account)
-            if (toAccountOpt.isPresent()) {
-                Transaction creditTransaction = new Transaction(
-                    transfer.getAmount(),
-                    Transaction.TransactionType.TRANSFER_IN,
-                    toAccountOpt.get(),
-                    "Transfer from " + transfer.getFromIban() + " - " + transfer.getDescription()
-                );
-                creditTransaction.setTransfer(savedTransfer);
-                transactionService.createTransaction(creditTransaction);
+            // Credit receiver (if internal account)
+            if (toAccount != null) {
+                entries.add(ledgerEntry(savedTransfer, "IN", transfer.getAmount(), Transaction.TransactionType.TRANSFER_IN,
+                    toAccount, "Transfer from " + transfer.getFromIban() + " - " + transfer.getDescription()));
             }
             
-            // Update transfer status
-            savedTransfer.setStatus(Transfer.TransferStatus.COMPLETED);
-            savedTransfer.setProcessedAt(LocalDateTime.now());
-            
-            return transferRepository.save(savedTransfer);
+            return savedTransfer;
             
         } catch (Exception e) {
-            // Mark transfer as failed
+            // Mark transfer as failed, the surrounding transaction is rolled back
             transfer.setStatus(Transfer.TransferStatus.FAILED);
-            transferRepository.save(transfer);
             throw new RuntimeException("Transfer failed: " + e.getMessage(), e);
         }
     }
     
+    private Map<String, Account> loadAccounts(String fromIban, String toIban) {
+        // Hot accounts are locked up front, all others rely on the version check at commit
+        List<String> ibans = List.of(fromIban, toIban);
+        List<Account> rows = retryExecutor.usePessimisticLocking(fromIban, toIban)
+                ? accountRepository.findByIbanInForUpdate(ibans)
+                : accountRepository.findByIbanIn(ibans);
+        
+        Map<String, Account> accounts = new HashMap<>(4);
+        for (Account account : rows) {
+            accounts.put(account.getIban(), account);
+        }
+        return accounts;
+    }
+    
+    private void publishStatusChange(Transfer transfer, Transfer.TransferStatus previousStatus) {
+        eventPublisher.publishEvent(new TransferStatusChangedEvent(
+            transfer.getId(), previousStatus, transfer.getStatus(), transfer.getAmount()));
+    }
+    
+    private Transaction ledgerEntry(Transfer transfer, String leg, BigDecimal amount, Transaction.TransactionType type,
+                                    Account account, String description) {
+        Transaction entry = new Transaction(amount, type, account, description);
+        entry.setTransfer(transfer);
+        // Entry references are derived from the transfer so the legs of one transfer can never collide
+        entry.setReferenceNumber(transfer.getReferenceNumber() + "-" + leg);
+        account.setBalance(transactionService.applyBalanceChange(entry));
+        return entry;
+    }
+    
     private void validateTransfer(Transfer transfer) {
         if (transfer == null) {
             throw new IllegalArgumentException("Transfer cannot be null");
@@ -153,14 +413,6 @@ public class TransferService {
             throw new IllegalArgumentException("Source and destination IBAN cannot be the same");
         }
         
-        // Validate source account exists and is active
-        Account fromAccount = accountService.getAccountByIban(transfer.getFromIban())
-                .orElseThrow(() -> new IllegalArgumentException("Source account not found: " + transfer.getFromIban()));
-        
-        if (!accountService.isAccountActive(transfer.getFromIban())) {
-            throw new IllegalArgumentException("Source account is not active: " + transfer.getFromIban());
-        }
-        
         // Validate IBAN format (basic validation)
         if (!isValidIbanFormat(transfer.getFromIban()) || !isValidIbanFormat(transfer.getToIban())) {
             throw new IllegalArgumentException("Invalid IBAN format");
@@ -189,7 +441,8 @@ public class TransferService {
     }
     
     public Transfer cancelTransfer(Long transferId, String reason) {
-        Transfer transfer = transferRepository.findById(transferId)
+        // Locked so a settlement worker cannot complete the transfer between the check and the update
+        Transfer transfer = transferRepository.findByIdForUpdate(transferId)
                 .orElseThrow(() -> new IllegalArgumentException("Transfer not found with id: " + transferId));
         
         if (transfer.getStatus() != Transfer.TransferStatus.PENDING) {
@@ -199,17 +452,22 @@ public class TransferService {
         transfer.setStatus(Transfer.TransferStatus.CANCELLED);
         transfer.setProcessedAt(LocalDateTime.now());
         
-        return transferRepository.save(transfer);
+        Transfer savedTransfer = transferRepository.save(transfer);
+        publishStatusChange(savedTransfer, Transfer.TransferStatus.PENDING);
+        return savedTransfer;
     }
     
-    public List<Transfer> getPendingTransfers() {
-        return transferRepository.findByStatus(Transfer.TransferStatus.PENDING);
+    @Transactional(readOnly = true)
+    public List<TransferDto> getPendingTransferDtos() {
+        return transferRepository.findDtosByStatus(Transfer.TransferStatus.PENDING);
     }
     
+    @Transactional(readOnly = true)
     public List<Transfer> getTransfersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         return transferRepository.findByDateRange(startDate, endDate);
     }
     
+    @Transactional(readOnly = true)
     public long getTransferCount(Long userId) {
         return transferRepository.countTransfersByUserId(userId);
     }
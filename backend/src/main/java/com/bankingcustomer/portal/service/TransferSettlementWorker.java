@@ -0,0 +1,74 @@
+package com.bankingcustomer.portal.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background workers settling transfers submitted in async mode. Each worker repeatedly
+ * claims a batch of pending transfers; claims skip rows locked by other workers, so any
+ * number of workers on any number of nodes can share the same database.
+ */
+@Component
+public class TransferSettlementWorker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TransferSettlementWorker.class);
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Value("${app.transfers.settlement.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.transfers.settlement.workers:2}")
+    private int workers;
+    
+    @Value("${app.transfers.settlement.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${app.transfers.settlement.poll-interval-ms:500}")
+    private long pollIntervalMs;
+    
+    private ScheduledExecutorService scheduler;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newScheduledThreadPool(workers);
+        for (int i = 0; i < workers; i++) {
+            scheduler.scheduleWithFixedDelay(this::drain, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+    
+    private void drain() {
+        try {
+            // Keep claiming while full batches come back, then sleep until the next poll
+            int claimed;
+            do {
+                claimed = transferService.settlePendingTransfers(batchSize);
+            } while (claimed == batchSize && !scheduler.isShutdown());
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the schedule; the claim is rolled back and retried
+            logger.warn("Transfer settlement batch failed: {}", e.getMessage());
+        }
+    }
+}
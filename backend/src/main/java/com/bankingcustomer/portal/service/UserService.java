@@ -1,13 +1,18 @@
 package com.bankingcustomer.portal.service;
 
 import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.event.UserDisabledEvent;
+import com.bankingcustomer.portal.event.UserRegisteredEvent;
+import com.bankingcustomer.portal.event.UserUpdatedEvent;
 import com.bankingcustomer.portal.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -20,6 +25,10 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
@@ -32,14 +41,17 @@ public class UserService {
         return userRepository.findByUsername(username);
     }
     
+    @Transactional(readOnly = true)
     public Optional<User> getUserByEmail(String email) {
         return userRepository.findByEmail(email);
     }
     
+    @Transactional(readOnly = true)
     public List<User> getUsersByRole(User.Role role) {
         return userRepository.findByRole(role);
     }
     
+    @Transactional(readOnly = true)
     public List<User> getActiveUsers() {
         return userRepository.findAllActiveUsers();
     }
@@ -57,7 +69,9 @@ public class UserService {
         // Encode password
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserRegisteredEvent(savedUser.getId()));
+        return savedUser;
     }
     
     public User updateUser(User user) {
@@ -89,7 +103,15 @@ public class UserService {
             user.setPassword(existingUser.getPassword());
         }
         
-        return userRepository.save(user);
+        // Tokens carry the role and are only valid for enabled users, so changing either revokes them
+        boolean revokeTokens = existingUser.getRole() != user.getRole()
+                || !Objects.equals(existingUser.getEnabled(), user.getEnabled());
+        
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(revokeTokens
+                ? new UserDisabledEvent(savedUser.getId())
+                : new UserUpdatedEvent(savedUser.getId()));
+        return savedUser;
     }
     
     public void deleteUser(Long id) {
@@ -99,12 +121,15 @@ public class UserService {
         // Instead of deleting, deactivate the user
         user.setEnabled(false);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserDisabledEvent(id));
     }
     
+    @Transactional(readOnly = true)
     public boolean existsByUsername(String username) {
         return userRepository.existsByUsername(username);
     }
     
+    @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
     }
@@ -120,7 +145,9 @@ public class UserService {
         
         // Update with new password
         user.setPassword(passwordEncoder.encode(newPassword));
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserUpdatedEvent(userId));
+        return savedUser;
     }
     
     public User enableUser(Long userId) {
@@ -128,7 +155,9 @@ public class UserService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
         
         user.setEnabled(true);
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserUpdatedEvent(userId));
+        return savedUser;
     }
     
     public User disableUser(Long userId) {
@@ -136,9 +165,12 @@ public class UserService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
         
         user.setEnabled(false);
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserDisabledEvent(userId));
+        return savedUser;
     }
     
+    @Transactional(readOnly = true)
     public List<User> searchUsers(String name) {
         return userRepository.findByFirstNameContainingOrLastNameContaining(name);
     }
@@ -0,0 +1,33 @@
+package com.bankingcustomer.portal.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 digests of a list of values, used where equal inputs have to produce the same stable
+ * key, such as entity tags and request fingerprints.
+ */
+public final class Digests {
+
+    private Digests() {}
+
+    /**
+     * Hex encoded SHA-256 of the parts in order. Each part is written as its string value followed
+     * by a zero byte, so ("ab", "c") and ("a", "bc") differ; null parts are written as "null".
+     */
+    public static String sha256Hex(Object... parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        for (Object part : parts) {
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,30 @@
+package com.bankingcustomer.portal.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Strong entity tags for conditional GETs. A tag is a digest of the values a representation is
+ * built from, such as account ids and versions, so it changes whenever one of them does.
+ */
+public final class ETags {
+    
+    // Authenticated data: the browser may keep a copy but has to revalidate it on every use, and
+    // shared caches must not store it at all
+    public static final CacheControl PRIVATE_REVALIDATE = CacheControl.noCache().cachePrivate();
+    
+    private ETags() {}
+    
+    public static String of(Object... parts) {
+        // 128 bits of the digest are plenty to tell versions of one resource apart
+        return "\"" + Digests.sha256Hex(parts).substring(0, 32) + "\"";
+    }
+    
+    public static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(etag)
+            .cacheControl(PRIVATE_REVALIDATE)
+            .build();
+    }
+}
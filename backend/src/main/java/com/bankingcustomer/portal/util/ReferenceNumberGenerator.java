@@ -0,0 +1,13 @@
+package com.bankingcustomer.portal.util;
+
+/**
+ * Produces the unique reference numbers stored on transactions and transfers.
+ */
+public interface ReferenceNumberGenerator {
+    
+    /**
+     * Returns a new reference number starting with the given prefix (e.g. "TXN", "TRF").
+     * Implementations must be thread-safe and never return the same value twice.
+     */
+    String next(String prefix);
+}
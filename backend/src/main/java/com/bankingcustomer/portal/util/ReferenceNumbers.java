@@ -0,0 +1,28 @@
+package com.bankingcustomer.portal.util;
+
+/**
+ * Static access to the active {@link ReferenceNumberGenerator} for entity lifecycle callbacks,
+ * which are not Spring beans. Defaults to a Snowflake generator on node 0 until the application
+ * installs the configured generator.
+ */
+public final class ReferenceNumbers {
+    
+    private static volatile ReferenceNumberGenerator generator = new SnowflakeReferenceNumberGenerator(0);
+    
+    private ReferenceNumbers() {}
+    
+    public static String next(String prefix) {
+        return generator.next(prefix);
+    }
+    
+    public static void setGenerator(ReferenceNumberGenerator referenceNumberGenerator) {
+        if (referenceNumberGenerator == null) {
+            throw new IllegalArgumentException("Reference number generator is required");
+        }
+        generator = referenceNumberGenerator;
+    }
+    
+    public static ReferenceNumberGenerator getGenerator() {
+        return generator;
+    }
+}
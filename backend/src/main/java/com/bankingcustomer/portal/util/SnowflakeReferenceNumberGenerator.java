@@ -0,0 +1,68 @@
+package com.bankingcustomer.portal.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style 64-bit ids: 41 bits of milliseconds since 2024-01-01, 10 bits of node id and
+ * 12 bits of per-millisecond sequence. Ids are generated lock-free with a single CAS, are strictly
+ * increasing per node, and are unique across nodes as long as every node has its own node id.
+ * When a millisecond's sequence is exhausted (or the wall clock steps back) the generator keeps
+ * counting on its own logical clock instead of waiting.
+ */
+public class SnowflakeReferenceNumberGenerator implements ReferenceNumberGenerator {
+    
+    public static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    
+    // Crockford base32: no I, L, O or U, so references are safe to read out loud
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+    
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[64]);
+    
+    private final long nodeBits;
+    
+    // Last issued (timestamp << SEQUENCE_BITS | sequence)
+    private final AtomicLong state = new AtomicLong();
+    
+    public SnowflakeReferenceNumberGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+    }
+    
+    public long nextId() {
+        long now = System.currentTimeMillis() - EPOCH_MILLIS;
+        long previous;
+        long next;
+        do {
+            previous = state.get();
+            long previousTimestamp = previous >>> SEQUENCE_BITS;
+            next = now > previousTimestamp ? now << SEQUENCE_BITS : previous + 1;
+        } while (!state.compareAndSet(previous, next));
+        
+        long timestamp = next >>> SEQUENCE_BITS;
+        long sequence = next & SEQUENCE_MASK;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+    }
+    
+    @Override
+    public String next(String prefix) {
+        char[] buffer = BUFFER.get();
+        int prefixLength = prefix.length();
+        prefix.getChars(0, prefixLength, buffer, 0);
+        
+        // Fixed width, most significant digit first, so string order matches id order
+        long id = nextId();
+        for (int i = prefixLength + ENCODED_LENGTH - 1; i >= prefixLength; i--) {
+            buffer[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(buffer, 0, prefixLength + ENCODED_LENGTH);
+    }
+}
@@ -0,0 +1,18 @@
+-- Databases created by ddl-auto=update are baselined at V1, so they never ran the
+-- baseline script. Add what it introduced on top of the original mappings before
+-- V2 aligns the sequences. On a schema created by V1 every statement is a no-op.
+
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0;
+UPDATE accounts SET version = 0 WHERE version IS NULL;
+
+CREATE SEQUENCE IF NOT EXISTS idempotency_keys_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    idempotency_key varchar(255) NOT NULL,
+    transfer_id bigint NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    CONSTRAINT pk_idempotency_keys PRIMARY KEY (id),
+    CONSTRAINT uk_idempotency_keys_user_key UNIQUE (user_id, idempotency_key)
+);
@@ -0,0 +1,91 @@
+-- Baseline schema matching the JPA mappings. Databases created earlier by
+-- ddl-auto=update are baselined at this version and skip this script, V1.1
+-- brings them up to it.
+
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE accounts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE transactions_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE transfers_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE idempotency_keys_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE users (
+    id bigint NOT NULL,
+    username varchar(50) NOT NULL,
+    password varchar(255) NOT NULL,
+    email varchar(255) NOT NULL,
+    first_name varchar(255) NOT NULL,
+    last_name varchar(255) NOT NULL,
+    role varchar(255) NOT NULL CHECK (role IN ('CLIENT', 'ADMIN')),
+    enabled boolean,
+    account_non_expired boolean,
+    account_non_locked boolean,
+    credentials_non_expired boolean,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE accounts (
+    id bigint NOT NULL,
+    iban varchar(34) NOT NULL,
+    account_name varchar(255) NOT NULL,
+    account_type varchar(255) NOT NULL CHECK (account_type IN ('CHECKING', 'SAVINGS', 'BUSINESS')),
+    balance numeric(19, 2) NOT NULL,
+    is_active boolean,
+    version bigint DEFAULT 0,
+    user_id bigint NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    CONSTRAINT pk_accounts PRIMARY KEY (id),
+    CONSTRAINT uk_accounts_iban UNIQUE (iban),
+    CONSTRAINT fk_accounts_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE transfers (
+    id bigint NOT NULL,
+    amount numeric(19, 2) NOT NULL,
+    transfer_fee numeric(19, 2),
+    from_iban varchar(255) NOT NULL,
+    to_iban varchar(255) NOT NULL,
+    beneficiary_name varchar(255),
+    description varchar(500),
+    reference_number varchar(255),
+    status varchar(255) NOT NULL CHECK (status IN ('PENDING', 'COMPLETED', 'FAILED', 'CANCELLED')),
+    created_at timestamp(6) NOT NULL,
+    processed_at timestamp(6),
+    from_account_id bigint NOT NULL,
+    to_account_id bigint,
+    CONSTRAINT pk_transfers PRIMARY KEY (id),
+    CONSTRAINT uk_transfers_reference_number UNIQUE (reference_number),
+    CONSTRAINT fk_transfers_from_account FOREIGN KEY (from_account_id) REFERENCES accounts (id),
+    CONSTRAINT fk_transfers_to_account FOREIGN KEY (to_account_id) REFERENCES accounts (id)
+);
+
+CREATE TABLE transactions (
+    id bigint NOT NULL,
+    amount numeric(19, 2) NOT NULL,
+    transaction_type varchar(255) NOT NULL CHECK (transaction_type IN ('CREDIT', 'DEBIT', 'TRANSFER_IN', 'TRANSFER_OUT', 'FEE')),
+    transaction_date timestamp(6) NOT NULL,
+    fee numeric(19, 2),
+    reference_number varchar(255),
+    description varchar(500),
+    balance_after numeric(19, 2),
+    account_id bigint NOT NULL,
+    transfer_id bigint,
+    CONSTRAINT pk_transactions PRIMARY KEY (id),
+    CONSTRAINT uk_transactions_reference_number UNIQUE (reference_number),
+    CONSTRAINT fk_transactions_account FOREIGN KEY (account_id) REFERENCES accounts (id),
+    CONSTRAINT fk_transactions_transfer FOREIGN KEY (transfer_id) REFERENCES transfers (id)
+);
+
+CREATE TABLE idempotency_keys (
+    id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    idempotency_key varchar(255) NOT NULL,
+    transfer_id bigint NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    CONSTRAINT pk_idempotency_keys PRIMARY KEY (id),
+    CONSTRAINT uk_idempotency_keys_user_key UNIQUE (user_id, idempotency_key)
+);
@@ -0,0 +1,27 @@
+-- One index per repository access path. IF NOT EXISTS keeps this safe on databases
+-- where ddl-auto already created some of them.
+
+-- accounts: findByUserId, findActiveAccountsByUserId, countAccountsByUserId, findByAccountType
+CREATE INDEX IF NOT EXISTS idx_accounts_user_active ON accounts (user_id, is_active);
+CREATE INDEX IF NOT EXISTS idx_accounts_type ON accounts (account_type);
+
+-- users: findByRole
+CREATE INDEX IF NOT EXISTS idx_users_role ON users (role);
+
+-- transactions: account history pages, findByAccountIdAndDateRange, countTransactionsByAccountId
+CREATE INDEX IF NOT EXISTS idx_transactions_account_date ON transactions (account_id, transaction_date, id);
+-- transactions: findByTransferId
+CREATE INDEX IF NOT EXISTS idx_transactions_transfer ON transactions (transfer_id);
+-- transactions: findByTransactionType
+CREATE INDEX IF NOT EXISTS idx_transactions_type_date ON transactions (transaction_type, transaction_date);
+
+-- transfers: the two UNION ALL branches of findByAccountId and the user history pages
+CREATE INDEX IF NOT EXISTS idx_transfers_from_account_created ON transfers (from_account_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_transfers_to_account_created ON transfers (to_account_id, created_at, id);
+-- transfers: the two UNION ALL branches of findByIban
+CREATE INDEX IF NOT EXISTS idx_transfers_from_iban_created ON transfers (from_iban, created_at);
+CREATE INDEX IF NOT EXISTS idx_transfers_to_iban_created ON transfers (to_iban, created_at);
+-- transfers: findByStatus and the settlement workers' claimByStatus
+CREATE INDEX IF NOT EXISTS idx_transfers_status ON transfers (status, id);
+-- transfers: findByDateRange
+CREATE INDEX IF NOT EXISTS idx_transfers_created ON transfers (created_at);
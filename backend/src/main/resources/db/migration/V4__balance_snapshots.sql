@@ -0,0 +1,22 @@
+-- Periodic per-account balance snapshots, see BalanceSnapshotService.
+
+CREATE SEQUENCE IF NOT EXISTS balance_snapshots_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS balance_snapshots (
+    id bigint NOT NULL,
+    account_id bigint NOT NULL,
+    as_of timestamp(6) NOT NULL,
+    last_transaction_id bigint,
+    balance numeric(19, 2) NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    CONSTRAINT pk_balance_snapshots PRIMARY KEY (id),
+    -- Also serves the nearest-snapshot lookup (account_id = ? AND as_of <= ? ORDER BY as_of DESC)
+    CONSTRAINT uk_balance_snapshots_account_as_of UNIQUE (account_id, as_of),
+    CONSTRAINT fk_balance_snapshots_account FOREIGN KEY (account_id) REFERENCES accounts (id)
+);
+
+-- balance_snapshots: findLatestAsOf
+CREATE INDEX IF NOT EXISTS idx_balance_snapshots_as_of ON balance_snapshots (as_of);
+
+-- transactions: accounts touched inside a snapshot window
+CREATE INDEX IF NOT EXISTS idx_transactions_date ON transactions (transaction_date, account_id);
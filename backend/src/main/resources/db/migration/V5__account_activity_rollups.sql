@@ -0,0 +1,16 @@
+-- Per-account activity aggregates by day and by month, see AccountAnalyticsService.
+
+CREATE TABLE IF NOT EXISTS account_activity_rollups (
+    account_id bigint NOT NULL,
+    granularity varchar(8) NOT NULL CHECK (granularity IN ('DAY', 'MONTH')),
+    period_start date NOT NULL,
+    credits numeric(19, 2) NOT NULL,
+    debits numeric(19, 2) NOT NULL,
+    fees numeric(19, 2) NOT NULL,
+    entry_count bigint NOT NULL,
+    min_balance numeric(19, 2),
+    max_balance numeric(19, 2),
+    -- Also serves the analytics range reads (account_id = ? AND granularity = ? AND period_start BETWEEN ? AND ?)
+    CONSTRAINT pk_account_activity_rollups PRIMARY KEY (account_id, granularity, period_start),
+    CONSTRAINT fk_account_activity_rollups_account FOREIGN KEY (account_id) REFERENCES accounts (id)
+);
@@ -0,0 +1,10 @@
+-- Idempotency keys remember a fingerprint of the request they were first used with, and
+-- expire so the purge job can remove them, see TransferIdempotencyService.
+
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS request_hash varchar(64);
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS expires_at timestamp(6);
+UPDATE idempotency_keys SET expires_at = created_at + INTERVAL '1' DAY WHERE expires_at IS NULL;
+ALTER TABLE idempotency_keys ALTER COLUMN expires_at SET NOT NULL;
+
+-- idempotency_keys: deleteExpired
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
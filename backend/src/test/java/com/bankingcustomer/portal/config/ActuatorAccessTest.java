@@ -0,0 +1,40 @@
+package com.bankingcustomer.portal.config;
+
+import com.bankingcustomer.portal.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Health is public, every other actuator endpoint is for admins only.
+ */
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=health,info,metrics")
+class ActuatorAccessTest {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Test
+	void metricsAreOnlyServedToAdmins() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+		User client = new User("metricsclient", "metrics123", "metricsclient@example.com", "Met", "Rics", User.Role.CLIENT);
+		User admin = new User("metricsadmin", "metrics123", "metricsadmin@example.com", "Met", "Rics", User.Role.ADMIN);
+
+		mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+		mockMvc.perform(get("/actuator/metrics")
+				.with(authentication(new UsernamePasswordAuthenticationToken(client, null, client.getAuthorities()))))
+			.andExpect(status().isForbidden());
+		mockMvc.perform(get("/actuator/metrics")
+				.with(authentication(new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()))))
+			.andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,39 @@
+package com.bankingcustomer.portal.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Requests beyond the permit count are turned away with 503 once the wait runs out, and a permit
+ * is given back when the admitted request completes.
+ */
+class DatabaseAdmissionLimiterTest {
+
+	@Test
+	void rejectsBeyondTheLimitUntilAPermitIsReleased() throws Exception {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		DatabaseAdmissionLimiter limiter = new DatabaseAdmissionLimiter(1, 10, meterRegistry);
+
+		MockHttpServletRequest first = new MockHttpServletRequest("GET", "/api/accounts");
+		MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+		assertThat(limiter.preHandle(first, firstResponse, null)).isTrue();
+
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		assertThat(limiter.preHandle(new MockHttpServletRequest("GET", "/api/accounts"), rejected, null)).isFalse();
+		assertThat(rejected.getStatus()).isEqualTo(503);
+		assertThat(meterRegistry.counter("portal.admission.rejected").count()).isEqualTo(1.0);
+
+		limiter.afterCompletion(first, firstResponse, null, null);
+		// Completing twice must not hand out a second permit
+		limiter.afterCompletion(first, firstResponse, null, null);
+
+		MockHttpServletRequest second = new MockHttpServletRequest("GET", "/api/accounts");
+		assertThat(limiter.preHandle(second, new MockHttpServletResponse(), null)).isTrue();
+		assertThat(limiter.preHandle(new MockHttpServletRequest("GET", "/api/accounts"), new MockHttpServletResponse(), null))
+			.isFalse();
+	}
+}
@@ -0,0 +1,98 @@
+package com.bankingcustomer.portal.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A database created by ddl-auto=update before Flyway took over is baselined at V1 and still
+ * ends up with the full schema, its rows intact and the sequences above the existing ids.
+ */
+class PreMigrationSchemaUpgradeTest {
+
+	@Test
+	void baselinedSchemaReceivesWhatV1WouldHaveCreated() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+			"jdbc:h2:mem:pre_migration_upgrade;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+		// The schema as ddl-auto=update left it: IDENTITY ids, no account version, no idempotency keys
+		jdbcTemplate.execute("""
+			CREATE TABLE users (
+			    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+			    username varchar(50) NOT NULL UNIQUE,
+			    password varchar(255) NOT NULL,
+			    email varchar(255) NOT NULL UNIQUE,
+			    first_name varchar(255) NOT NULL,
+			    last_name varchar(255) NOT NULL,
+			    role varchar(255) NOT NULL,
+			    enabled boolean,
+			    account_non_expired boolean,
+			    account_non_locked boolean,
+			    credentials_non_expired boolean,
+			    created_at timestamp(6) NOT NULL,
+			    updated_at timestamp(6))""");
+		jdbcTemplate.execute("""
+			CREATE TABLE accounts (
+			    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+			    iban varchar(34) NOT NULL UNIQUE,
+			    account_name varchar(255) NOT NULL,
+			    account_type varchar(255) NOT NULL,
+			    balance numeric(19, 2) NOT NULL,
+			    is_active boolean,
+			    user_id bigint NOT NULL REFERENCES users (id),
+			    created_at timestamp(6) NOT NULL,
+			    updated_at timestamp(6))""");
+		jdbcTemplate.execute("""
+			CREATE TABLE transfers (
+			    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+			    amount numeric(19, 2) NOT NULL,
+			    transfer_fee numeric(19, 2),
+			    from_iban varchar(255) NOT NULL,
+			    to_iban varchar(255) NOT NULL,
+			    beneficiary_name varchar(255),
+			    description varchar(500),
+			    reference_number varchar(255) UNIQUE,
+			    status varchar(255) NOT NULL,
+			    created_at timestamp(6) NOT NULL,
+			    processed_at timestamp(6),
+			    from_account_id bigint NOT NULL REFERENCES accounts (id),
+			    to_account_id bigint REFERENCES accounts (id))""");
+		jdbcTemplate.execute("""
+			CREATE TABLE transactions (
+			    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+			    amount numeric(19, 2) NOT NULL,
+			    transaction_type varchar(255) NOT NULL,
+			    transaction_date timestamp(6) NOT NULL,
+			    fee numeric(19, 2),
+			    reference_number varchar(255) UNIQUE,
+			    description varchar(500),
+			    balance_after numeric(19, 2),
+			    account_id bigint NOT NULL REFERENCES accounts (id),
+			    transfer_id bigint REFERENCES transfers (id))""");
+		jdbcTemplate.update("INSERT INTO users (username, password, email, first_name, last_name, role, enabled, created_at) " +
+			"VALUES ('legacy', 'x', 'legacy@example.com', 'Le', 'Gacy', 'CLIENT', true, CURRENT_TIMESTAMP)");
+		long userId = jdbcTemplate.queryForObject("SELECT id FROM users", Long.class);
+		jdbcTemplate.update("INSERT INTO accounts (iban, account_name, account_type, balance, is_active, user_id, created_at) " +
+			"VALUES ('FR7630001000000000000009999', 'Legacy', 'CHECKING', 42.00, true, ?, CURRENT_TIMESTAMP)", userId);
+
+		MigrateResult result = Flyway.configure()
+			.dataSource(dataSource)
+			.baselineOnMigrate(true)
+			.baselineVersion("1")
+			.javaMigrations(new IdSequenceMigration())
+			.load()
+			.migrate();
+
+		assertThat(result.success).isTrue();
+		assertThat(result.migrations).extracting(migration -> migration.version).startsWith("1.1", "2");
+		assertThat(jdbcTemplate.queryForObject("SELECT version FROM accounts", Long.class)).isZero();
+		assertThat(jdbcTemplate.queryForObject("SELECT balance FROM accounts", String.class)).isEqualTo("42.00");
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Long.class)).isZero();
+		assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR users_seq", Long.class)).isGreaterThan(userId);
+	}
+}
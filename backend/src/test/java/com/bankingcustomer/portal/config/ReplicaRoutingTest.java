@@ -0,0 +1,98 @@
+package com.bankingcustomer.portal.config;
+
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.security.TokenPrincipal;
+import com.bankingcustomer.portal.service.AccountService;
+import com.bankingcustomer.portal.service.TransferService;
+import com.bankingcustomer.portal.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing with a second pool on the same in-memory database standing in for a replica: read-only
+ * transactions go to the replica unless the user just wrote or the replica is lagging.
+ */
+@SpringBootTest(properties = {
+	"app.datasource.replicas.enabled=true",
+	"app.datasource.replicas.urls=${spring.datasource.url}",
+	"app.datasource.replicas.lag-query=SELECT 0",
+	"app.datasource.replicas.lag-check-interval-ms=600000"
+})
+class ReplicaRoutingTest {
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private TransferService transferService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private ReplicaLagGuard replicaLagGuard;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+		replicaLagGuard.setLagging("replica-1", false);
+	}
+
+	@Test
+	void readOnlyTransactionsGoToTheReplicaUnlessPinned() {
+		User owner = userService.createUser(
+			new User("replicated", "replicated123", "replicated@example.com", "Repli", "Cated", User.Role.CLIENT));
+		Account from = createAccount(owner, new BigDecimal("100.00"));
+		Account to = createAccount(owner, BigDecimal.ZERO);
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+			new TokenPrincipal(owner.getId(), owner.getUsername(), owner.getRole(), true), null));
+
+		double replicaBefore = routed("replica-1");
+		assertThat(accountService.getActiveAccountsByUserId(owner.getId())).hasSize(2);
+		assertThat(routed("replica-1")).isGreaterThan(replicaBefore);
+
+		// The user's own transfer pins their reads to the primary
+		transferService.executeTransfer(
+			new Transfer(new BigDecimal("10.00"), from.getIban(), to.getIban(), "Replica", "Pinned", null));
+		replicaBefore = routed("replica-1");
+		double primaryBefore = routed(ReplicaRoutingDataSource.PRIMARY);
+		assertThat(accountService.getAccountBalance(from.getId())).isEqualByComparingTo("89.90");
+		assertThat(routed("replica-1")).isEqualTo(replicaBefore);
+		assertThat(routed(ReplicaRoutingDataSource.PRIMARY)).isGreaterThan(primaryBefore);
+
+		// Other users still read from the replica, unless it is lagging
+		SecurityContextHolder.clearContext();
+		replicaBefore = routed("replica-1");
+		accountService.getAllAccounts();
+		assertThat(routed("replica-1")).isGreaterThan(replicaBefore);
+
+		replicaLagGuard.setLagging("replica-1", true);
+		replicaBefore = routed("replica-1");
+		accountService.getAllAccounts();
+		assertThat(routed("replica-1")).isEqualTo(replicaBefore);
+	}
+
+	private double routed(String target) {
+		return meterRegistry.counter("portal.datasource.routed", "target", target).count();
+	}
+
+	private Account createAccount(User owner, BigDecimal balance) {
+		Account account = new Account(accountService.generateIban(), "Replicated account", Account.AccountType.CHECKING, owner);
+		account.setBalance(balance);
+		return accountService.createAccount(account);
+	}
+}
@@ -0,0 +1,102 @@
+package com.bankingcustomer.portal.controller;
+
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.service.AccountService;
+import com.bankingcustomer.portal.service.TransferService;
+import com.bankingcustomer.portal.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * A stream opens with the current balances and then receives the owner's committed ledger
+ * entries, and nobody else's.
+ */
+@SpringBootTest
+class AccountStreamTest {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private TransferService transferService;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+	}
+
+	@Test
+	void pushesCommittedEntriesToTheOwnersStream() throws Exception {
+		User owner = userService.createUser(
+			new User("streamer", "streamer123", "streamer@example.com", "Stream", "Er", User.Role.CLIENT));
+		User bystander = userService.createUser(
+			new User("bystander", "bystander123", "bystander@example.com", "By", "Stander", User.Role.CLIENT));
+		Account from = createAccount(owner, new BigDecimal("100.00"));
+		Account to = createAccount(owner, BigDecimal.ZERO);
+		Account otherFrom = createAccount(bystander, new BigDecimal("100.00"));
+		Account otherTo = createAccount(bystander, BigDecimal.ZERO);
+
+		MvcResult stream = mockMvc.perform(get("/api/accounts/stream")
+				.accept(MediaType.TEXT_EVENT_STREAM)
+				.with(authentication(new UsernamePasswordAuthenticationToken(owner, null, owner.getAuthorities()))))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		assertThat(awaitContent(stream, to.getIban())).contains("event:balance", from.getIban(), "\"balance\":100.00");
+		assertThat(stream.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+
+		Transfer elsewhere = transferService.executeTransfer(
+			new Transfer(new BigDecimal("5.00"), otherFrom.getIban(), otherTo.getIban(), "Stream", "Elsewhere", null));
+		Transfer transfer = transferService.executeTransfer(
+			new Transfer(new BigDecimal("10.00"), from.getIban(), to.getIban(), "Stream", "Pushed", null));
+
+		String content = awaitContent(stream, transfer.getReferenceNumber() + "-IN");
+		assertThat(content).contains("event:transaction", "\"balance\":89.90", "\"balance\":10.00");
+		assertThat(content).doesNotContain(elsewhere.getReferenceNumber(), otherFrom.getIban());
+	}
+
+	private String awaitContent(MvcResult stream, String expected) throws Exception {
+		long deadline = System.currentTimeMillis() + 5000;
+		String content = stream.getResponse().getContentAsString();
+		while (!content.contains(expected)) {
+			if (System.currentTimeMillis() > deadline) {
+				fail("Stream did not receive " + expected + ", got: " + content);
+			}
+			Thread.sleep(20);
+			content = stream.getResponse().getContentAsString();
+		}
+		return content;
+	}
+
+	private Account createAccount(User owner, BigDecimal balance) {
+		Account account = new Account(accountService.generateIban(), "Streamed account", Account.AccountType.CHECKING, owner);
+		account.setBalance(balance);
+		return accountService.createAccount(account);
+	}
+}
@@ -0,0 +1,110 @@
+package com.bankingcustomer.portal.controller;
+
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.repository.CapturingStatementInspector;
+import com.bankingcustomer.portal.service.AccountService;
+import com.bankingcustomer.portal.service.TransferService;
+import com.bankingcustomer.portal.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Polled endpoints answer a matching If-None-Match with 304 after a single lookup, and a ledger
+ * change gives them a new tag.
+ */
+@SpringBootTest
+class ConditionalGetTest {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private TransferService transferService;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+	}
+
+	@Test
+	void unchangedResourcesAreNotModifiedUntilTheLedgerMoves() throws Exception {
+		User client = userService.createUser(
+			new User("etagger", "etagger123", "etagger@example.com", "E", "Tagger", User.Role.CLIENT));
+		Account from = createAccount(client, new BigDecimal("100.00"));
+		Account to = createAccount(client, BigDecimal.ZERO);
+		transfer(from, to);
+
+		List<String> urls = List.of(
+			"/api/accounts",
+			"/api/accounts/" + from.getId(),
+			"/api/accounts/iban/" + from.getIban(),
+			"/api/accounts/" + from.getId() + "/balance",
+			"/api/transactions/account/" + from.getId() + "?size=20");
+		for (String url : urls) {
+			MvcResult first = perform(client, get(url));
+			assertThat(first.getResponse().getStatus()).as(url).isEqualTo(200);
+			assertThat(first.getResponse().getHeader(HttpHeaders.CACHE_CONTROL)).as(url).isEqualTo("no-cache, private");
+			String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+			assertThat(etag).as(url).startsWith("\"");
+
+			CapturingStatementInspector.start();
+			MvcResult revalidated;
+			try {
+				revalidated = perform(client, get(url).header(HttpHeaders.IF_NONE_MATCH, etag));
+			} finally {
+				assertThat(CapturingStatementInspector.stop()).as(url).hasSize(1);
+			}
+			assertThat(revalidated.getResponse().getStatus()).as(url).isEqualTo(304);
+			assertThat(revalidated.getResponse().getContentAsString()).as(url).isEmpty();
+
+			transfer(from, to);
+			MvcResult changed = perform(client, get(url).header(HttpHeaders.IF_NONE_MATCH, etag));
+			assertThat(changed.getResponse().getStatus()).as(url).isEqualTo(200);
+			assertThat(changed.getResponse().getHeader(HttpHeaders.ETAG)).as(url).isNotEqualTo(etag);
+		}
+	}
+
+	private MvcResult perform(User user, MockHttpServletRequestBuilder request) throws Exception {
+		return mockMvc.perform(request
+				.with(authentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()))))
+			.andReturn();
+	}
+
+	private void transfer(Account from, Account to) {
+		transferService.executeTransfer(
+			new Transfer(new BigDecimal("1.00"), from.getIban(), to.getIban(), "ETag", "Polled", null));
+	}
+
+	private Account createAccount(User owner, BigDecimal balance) {
+		Account account = new Account(accountService.generateIban(), "Tagged account", Account.AccountType.CHECKING, owner);
+		account.setBalance(balance);
+		return accountService.createAccount(account);
+	}
+}
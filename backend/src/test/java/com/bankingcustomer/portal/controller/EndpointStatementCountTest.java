@@ -0,0 +1,101 @@
+package com.bankingcustomer.portal.controller;
+
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.repository.CapturingStatementInspector;
+import com.bankingcustomer.portal.service.AccountService;
+import com.bankingcustomer.portal.service.TransferService;
+import com.bankingcustomer.portal.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements each listing and lookup endpoint issues. The counts must not grow
+ * with the number of rows returned.
+ */
+@SpringBootTest
+class EndpointStatementCountTest {
+
+	private static final int TRANSFERS = 20;
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private TransferService transferService;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+	}
+
+	@Test
+	void listingsAndLookupsUseAFixedNumberOfStatements() throws Exception {
+		User client = userService.createUser(
+			new User("counter", "counter123", "counter@example.com", "Count", "Er", User.Role.CLIENT));
+		User admin = userService.createUser(
+			new User("counteradmin", "counter123", "counteradmin@example.com", "Count", "Admin", User.Role.ADMIN));
+		Account from = createAccount(client, new BigDecimal("1000.00"));
+		Account to = createAccount(client, BigDecimal.ZERO);
+		Transfer transfer = null;
+		for (int i = 0; i < TRANSFERS; i++) {
+			transfer = transferService.executeTransfer(
+				new Transfer(new BigDecimal("1.00"), from.getIban(), to.getIban(), "Counter", "Count " + i, null));
+		}
+		// Ledger entries carry the transfer reference with a leg suffix
+		String transactionReference = transfer.getReferenceNumber() + "-OUT";
+
+		assertStatements(client, "/api/transactions/user", 1);
+		assertStatements(client, "/api/transactions/account/" + from.getId() + "?size=50", 2);
+		assertStatements(client, "/api/transactions/reference/" + transactionReference, 1);
+		assertStatements(client, "/api/transfers/user?size=50", 1);
+		assertStatements(client, "/api/transfers/" + transfer.getId(), 1);
+		assertStatements(client, "/api/transfers/reference/" + transfer.getReferenceNumber(), 1);
+		assertStatements(admin, "/api/transactions/all", 1);
+		assertStatements(admin, "/api/transfers/all", 1);
+		assertStatements(admin, "/api/transfers/pending", 1);
+	}
+
+	private void assertStatements(User user, String url, int expected) throws Exception {
+		CapturingStatementInspector.start();
+		List<String> statements;
+		try {
+			mockMvc.perform(get(url)
+					.with(authentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()))))
+				.andExpect(status().isOk());
+		} finally {
+			statements = CapturingStatementInspector.stop();
+		}
+		assertThat(statements).as(url).hasSize(expected);
+	}
+
+	private Account createAccount(User owner, BigDecimal balance) {
+		Account account = new Account(accountService.generateIban(), "Counted account", Account.AccountType.CHECKING, owner);
+		account.setBalance(balance);
+		return accountService.createAccount(account);
+	}
+}
@@ -0,0 +1,163 @@
+package com.bankingcustomer.portal.controller;
+
+import com.bankingcustomer.portal.dto.auth.LoginRequest;
+import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.repository.UserRepository;
+import com.bankingcustomer.portal.security.JwtUtils;
+import com.bankingcustomer.portal.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Login throughput while data endpoints are under concurrent load, with hashing on its own pool
+ * and, as the baseline, with BCrypt inline on the thread handling the login.
+ */
+@SpringBootTest
+class LoginThroughputBenchmarkTest {
+
+	private static final int LOGIN_THREADS = 4;
+	private static final int LOGINS_PER_THREAD = 10;
+	private static final int DATA_THREADS = 8;
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private DaoAuthenticationProvider authenticationProvider;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Value("${app.security.bcrypt.strength}")
+	private int bcryptStrength;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+	}
+
+	@Test
+	void loginsUnderDataLoad() throws Exception {
+		User user = userService.createUser(
+			new User("loginbench", "loginbench123", "loginbench@example.com", "Login", "Bench", User.Role.CLIENT));
+		String token = jwtUtils.generateToken(user);
+
+		assertThat(runLogins("offloaded", token)).isPositive();
+
+		authenticationProvider.setPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength));
+		try {
+			assertThat(runLogins("inline", token)).isPositive();
+		} finally {
+			authenticationProvider.setPasswordEncoder(passwordEncoder);
+		}
+	}
+
+	private int runLogins(String label, String token) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(LOGIN_THREADS + DATA_THREADS);
+		AtomicBoolean loggingIn = new AtomicBoolean(true);
+		try {
+			List<Future<Integer>> dataResults = new ArrayList<>();
+			for (int t = 0; t < DATA_THREADS; t++) {
+				dataResults.add(executor.submit(() -> {
+					int served = 0;
+					while (loggingIn.get()) {
+						mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + token))
+							.andExpect(status().isOk());
+						served++;
+					}
+					return served;
+				}));
+			}
+
+			long start = System.nanoTime();
+			List<Future<?>> loginResults = new ArrayList<>();
+			for (int t = 0; t < LOGIN_THREADS; t++) {
+				loginResults.add(executor.submit(() -> {
+					for (int i = 0; i < LOGINS_PER_THREAD; i++) {
+						login("loginbench", "loginbench123");
+					}
+					return null;
+				}));
+			}
+			for (Future<?> result : loginResults) {
+				result.get();
+			}
+			long elapsedNanos = System.nanoTime() - start;
+			loggingIn.set(false);
+
+			int served = 0;
+			for (Future<Integer> result : dataResults) {
+				served += result.get();
+			}
+			double seconds = elapsedNanos / 1e9;
+			System.out.printf("Logins (%s): %.1f/s over %d logins, data endpoints: %.0f requests/s alongside%n",
+				label, LOGIN_THREADS * LOGINS_PER_THREAD / seconds, LOGIN_THREADS * LOGINS_PER_THREAD, served / seconds);
+			return served;
+		} finally {
+			loggingIn.set(false);
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void loginRehashesPasswordsBelowTheConfiguredCost() throws Exception {
+		User user = new User("rehash", new BCryptPasswordEncoder(4).encode("rehash123"),
+			"rehash@example.com", "Re", "Hash", User.Role.CLIENT);
+		userRepository.save(user);
+
+		login("rehash", "rehash123");
+
+		assertThat(userRepository.findByUsername("rehash").orElseThrow().getPassword()).startsWith("$2a$05$");
+		login("rehash", "rehash123");
+	}
+
+	private void login(String username, String password) throws Exception {
+		MvcResult result = mockMvc.perform(post("/api/auth/login")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new LoginRequest(username, password))))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+	}
+}
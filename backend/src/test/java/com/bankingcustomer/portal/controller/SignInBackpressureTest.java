@@ -0,0 +1,77 @@
+package com.bankingcustomer.portal.controller;
+
+import com.bankingcustomer.portal.config.SignInExecutorConfig;
+import com.bankingcustomer.portal.dto.auth.LoginRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sign-in requests arriving while the sign-in executor and its queue are full are turned away
+ * with a 503 instead of queueing.
+ */
+@SpringBootTest(properties = {
+	"app.security.sign-in.threads=1",
+	"app.security.sign-in.queue-capacity=1"
+})
+class SignInBackpressureTest {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	@Qualifier(SignInExecutorConfig.SIGN_IN_EXECUTOR)
+	private ThreadPoolTaskExecutor signInExecutor;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void loginIsRejectedWhileTheSignInQueueIsFull() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch running = new CountDownLatch(1);
+		// One task holds the only thread, the second takes the only queue slot
+		signInExecutor.execute(() -> {
+			running.countDown();
+			awaitQuietly(release);
+		});
+		running.await();
+		signInExecutor.execute(() -> awaitQuietly(release));
+
+		try {
+			MvcResult result = mockMvc.perform(post("/api/auth/login")
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(objectMapper.writeValueAsString(new LoginRequest("nobody", "nobody123"))))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+			mockMvc.perform(asyncDispatch(result)).andExpect(status().isServiceUnavailable());
+		} finally {
+			release.countDown();
+		}
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
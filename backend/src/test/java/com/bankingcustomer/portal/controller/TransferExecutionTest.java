@@ -0,0 +1,125 @@
+package com.bankingcustomer.portal.controller;
+
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.service.AccountLanes;
+import com.bankingcustomer.portal.service.AccountService;
+import com.bankingcustomer.portal.service.ConcurrencyRetryExecutor;
+import com.bankingcustomer.portal.service.TransferService;
+import com.bankingcustomer.portal.service.UserService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * The ownership check of the transfer endpoint does not leave the source account in the request's
+ * persistence context, so a transfer that waited for its lane while the account changed still
+ * settles on its first attempt.
+ */
+@SpringBootTest
+class TransferExecutionTest {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private TransferService transferService;
+
+	@Autowired
+	private AccountLanes accountLanes;
+
+	@Autowired
+	private ConcurrencyRetryExecutor retryExecutor;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+	}
+
+	@Test
+	void accountChangedWhileWaitingForTheLaneIsNotStale() throws Exception {
+		User client = userService.createUser(
+			new User("laner", "laner123", "laner@example.com", "La", "Ner", User.Role.CLIENT));
+		Account from = createAccount(client, new BigDecimal("100.00"));
+		Account to = createAccount(client, BigDecimal.ZERO);
+		String body = "{\"fromIban\":\"" + from.getIban() + "\",\"toIban\":\"" + to.getIban() +
+			"\",\"amount\":10.00,\"beneficiaryName\":\"La Ner\",\"description\":\"Queued\"}";
+		double retriesBefore = meterRegistry.counter("portal.concurrency.retries", "operation", "executeTransfer").count();
+
+		ReflectionTestUtils.setField(retryExecutor, "lockingMode", "pessimistic");
+		ExecutorService requests = Executors.newSingleThreadExecutor();
+		try {
+			MvcResult result = accountLanes.runInLanes(List.of(from.getId(), to.getId()), () -> {
+				try {
+					Future<MvcResult> queued = requests.submit(() -> mockMvc.perform(post("/api/transfers/execute")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(body)
+							.with(authentication(new UsernamePasswordAuthenticationToken(client, null, client.getAuthorities()))))
+						.andReturn());
+					awaitQueuedOnLane();
+					// Lanes are reentrant, so this transfer runs while the request waits behind it
+					transferService.executeTransfer(
+						new Transfer(new BigDecimal("5.00"), from.getIban(), to.getIban(), "La Ner", "Ahead", null));
+					return queued;
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}).get(30, TimeUnit.SECONDS);
+
+			assertThat(result.getResponse().getStatus()).as(result.getResponse().getContentAsString()).isEqualTo(200);
+		} finally {
+			ReflectionTestUtils.setField(retryExecutor, "lockingMode", "optimistic");
+			requests.shutdown();
+		}
+		assertThat(meterRegistry.counter("portal.concurrency.retries", "operation", "executeTransfer").count())
+			.isEqualTo(retriesBefore);
+	}
+
+	private void awaitQueuedOnLane() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (meterRegistry.find("portal.lanes.queue.depth").gauges().stream().mapToDouble(Gauge::value).sum() == 0) {
+			assertThat(System.currentTimeMillis()).as("request queued on the lane").isLessThan(deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	private Account createAccount(User owner, BigDecimal balance) {
+		Account account = new Account(accountService.generateIban(), "Laned account", Account.AccountType.CHECKING, owner);
+		account.setBalance(balance);
+		return accountService.createAccount(account);
+	}
+}
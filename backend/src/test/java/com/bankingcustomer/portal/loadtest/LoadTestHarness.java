@@ -0,0 +1,157 @@
+package com.bankingcustomer.portal.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load generator for a running backend. Each simulated client sends its next request
+ * as soon as the previous one answered, for a fixed duration per concurrency level, and the
+ * harness prints throughput and latency percentiles. Run it once against the default server and
+ * once against the virtual-threads profile to compare the two:
+ *
+ * <pre>
+ *   ./mvnw test-compile
+ *   java -cp target/test-classes com.bankingcustomer.portal.loadtest.LoadTestHarness \
+ *       --url=http://localhost:8080 --label=platform --levels=100,1000,10000 --seconds=30
+ * </pre>
+ *
+ * Clients are asynchronous requests rather than threads, so 10k clients need 10k sockets but not
+ * 10k threads (raise the open file limit). Options: --url, --username, --password, --path,
+ * --levels, --seconds, --warmup-seconds, --label.
+ */
+public class LoadTestHarness {
+
+	private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+	private final HttpClient client;
+	private final URI target;
+	private final String authorization;
+
+	private LoadTestHarness(HttpClient client, URI target, String authorization) {
+		this.client = client;
+		this.target = target;
+		this.authorization = authorization;
+	}
+
+	public static void main(String[] args) throws Exception {
+		String url = option(args, "url", "http://localhost:8080");
+		String label = option(args, "label", "server");
+		String path = option(args, "path", "/api/accounts");
+		int seconds = Integer.parseInt(option(args, "seconds", "30"));
+		int warmupSeconds = Integer.parseInt(option(args, "warmup-seconds", "5"));
+
+		HttpClient client = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(10))
+			.build();
+		String token = login(client, url, option(args, "username", "client"), option(args, "password", "client123"));
+		LoadTestHarness harness = new LoadTestHarness(client, URI.create(url + path), "Bearer " + token);
+
+		System.out.printf("%-10s %8s %10s %8s %12s %9s %9s%n",
+			"mode", "clients", "requests", "errors", "requests/s", "p50 ms", "p99 ms");
+		for (String level : option(args, "levels", "100,1000,10000").split(",")) {
+			int clients = Integer.parseInt(level.trim());
+			harness.run(clients, warmupSeconds);
+			Result result = harness.run(clients, seconds);
+			System.out.printf("%-10s %8d %10d %8d %12.0f %9.1f %9.1f%n",
+				label, clients, result.latenciesMicros.size(), result.errors,
+				result.latenciesMicros.size() / (double) seconds,
+				result.percentile(0.50) / 1000.0, result.percentile(0.99) / 1000.0);
+		}
+	}
+
+	private Result run(int clients, int seconds) {
+		long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+		AtomicLong errors = new AtomicLong();
+		List<List<Long>> latencies = new ArrayList<>(clients);
+		List<CompletableFuture<Void>> loops = new ArrayList<>(clients);
+		for (int i = 0; i < clients; i++) {
+			// Each client's requests are sequential, so its list is never written concurrently
+			List<Long> clientLatencies = new ArrayList<>();
+			latencies.add(clientLatencies);
+			CompletableFuture<Void> done = new CompletableFuture<>();
+			loops.add(done);
+			next(deadline, clientLatencies, errors, done);
+		}
+		CompletableFuture.allOf(loops.toArray(new CompletableFuture[0])).join();
+
+		List<Long> all = new ArrayList<>();
+		latencies.forEach(all::addAll);
+		Collections.sort(all);
+		return new Result(all, errors.get());
+	}
+
+	private void next(long deadline, List<Long> latencies, AtomicLong errors, CompletableFuture<Void> done) {
+		if (System.nanoTime() >= deadline) {
+			done.complete(null);
+			return;
+		}
+		HttpRequest request = HttpRequest.newBuilder(target)
+			.header("Authorization", authorization)
+			.timeout(Duration.ofSeconds(60))
+			.GET()
+			.build();
+		long start = System.nanoTime();
+		client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+			.whenComplete((response, failure) -> {
+				if (failure != null || response.statusCode() != 200) {
+					errors.incrementAndGet();
+				} else {
+					latencies.add((System.nanoTime() - start) / 1000);
+				}
+				next(deadline, latencies, errors, done);
+			});
+	}
+
+	private static String login(HttpClient client, String url, String username, String password) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/api/auth/login"))
+			.header("Content-Type", "application/json")
+			.POST(HttpRequest.BodyPublishers.ofString(
+				"{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+			.build();
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+		Matcher matcher = TOKEN.matcher(response.body());
+		if (response.statusCode() != 200 || !matcher.find()) {
+			throw new IllegalStateException("Login failed with status " + response.statusCode() + ": " + response.body());
+		}
+		return matcher.group(1);
+	}
+
+	private static String option(String[] args, String name, String defaultValue) {
+		String prefix = "--" + name + "=";
+		for (String arg : args) {
+			if (arg.startsWith(prefix)) {
+				return arg.substring(prefix.length());
+			}
+		}
+		return defaultValue;
+	}
+
+	private static final class Result {
+
+		private final List<Long> latenciesMicros;
+		private final long errors;
+
+		private Result(List<Long> latenciesMicros, long errors) {
+			this.latenciesMicros = latenciesMicros;
+			this.errors = errors;
+		}
+
+		private long percentile(double quantile) {
+			if (latenciesMicros.isEmpty()) {
+				return 0;
+			}
+			int index = (int) Math.ceil(quantile * latenciesMicros.size()) - 1;
+			return latenciesMicros.get(Math.max(0, index));
+		}
+	}
+}
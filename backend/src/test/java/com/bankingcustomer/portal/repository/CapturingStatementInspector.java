@@ -0,0 +1,34 @@
+package com.bankingcustomer.portal.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate prepares on the current thread between {@link #start()} and
+ * {@link #stop()}. Registered for the whole test context, idle on every other thread.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+	private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+	public static void start() {
+		CAPTURED.set(new ArrayList<>());
+	}
+
+	public static List<String> stop() {
+		List<String> statements = CAPTURED.get();
+		CAPTURED.remove();
+		return statements;
+	}
+
+	@Override
+	public String inspect(String sql) {
+		List<String> statements = CAPTURED.get();
+		if (statements != null) {
+			statements.add(sql);
+		}
+		return sql;
+	}
+}
@@ -0,0 +1,237 @@
+package com.bankingcustomer.portal.repository;
+
+import com.bankingcustomer.portal.dto.transaction.TransactionDto;
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transaction;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN on the SQL behind every repository query and fails when a plan scans a whole
+ * table holding more than {@link #SCAN_ROW_THRESHOLD} rows. Queries that are meant to read
+ * most of a table (findAll, findAllDtos, streamAllDtos, findAllActive*, the role/type filters, the leading-wildcard name
+ * search) are not listed.
+ */
+@SpringBootTest
+class RepositoryQueryPlanTest {
+
+	private static final int USERS = 600;
+	private static final int TRANSFERS = 1200;
+	private static final long SCAN_ROW_THRESHOLD = 500;
+
+	private static final Pattern TABLE_SCAN = Pattern.compile("/\\* [\\w\"]+\\.\"?(\\w+)\"?\\.tableScan \\*/");
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private TransferRepository transferRepository;
+
+	@Autowired
+	private IdempotencyKeyRepository idempotencyKeyRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void repositoryQueriesAvoidLargeTableScans() {
+		Account account = transactionTemplate.execute(status -> seed());
+		jdbcTemplate.execute("ANALYZE");
+
+		Long userId = account.getUser().getId();
+		Long accountId = account.getId();
+		String iban = account.getIban();
+		LocalDateTime now = LocalDateTime.now();
+
+		Map<String, Runnable> queries = new LinkedHashMap<>();
+		queries.put("UserRepository.findByUsername", () -> userRepository.findByUsername("plan-user-1"));
+		queries.put("UserRepository.findByEmail", () -> userRepository.findByEmail("plan-user-1@example.com"));
+		queries.put("UserRepository.existsByUsername", () -> userRepository.existsByUsername("plan-user-1"));
+		queries.put("UserRepository.existsByEmail", () -> userRepository.existsByEmail("plan-user-1@example.com"));
+		queries.put("AccountRepository.findByIban", () -> accountRepository.findByIban(iban));
+		queries.put("AccountRepository.findIdByIban", () -> accountRepository.findIdByIban(iban));
+		queries.put("AccountRepository.findOwnerIdByIban", () -> accountRepository.findOwnerIdByIban(iban));
+		queries.put("AccountRepository.findByIbanIn", () -> accountRepository.findByIbanIn(List.of(iban)));
+		queries.put("AccountRepository.findByIbanInForUpdate", () -> accountRepository.findByIbanInForUpdate(List.of(iban)));
+		queries.put("AccountRepository.findBalanceById", () -> accountRepository.findBalanceById(accountId));
+		queries.put("AccountRepository.applyBalanceDelta", () -> accountRepository.applyBalanceDelta(accountId, BigDecimal.ZERO));
+		queries.put("AccountRepository.findByUser", () -> accountRepository.findByUser(account.getUser()));
+		queries.put("AccountRepository.findByUserId", () -> accountRepository.findByUserId(userId));
+		queries.put("AccountRepository.findActiveAccountsByUserId", () -> accountRepository.findActiveAccountsByUserId(userId));
+		queries.put("AccountRepository.findActiveVersionsByUserId", () -> accountRepository.findActiveVersionsByUserId(userId));
+		queries.put("AccountRepository.existsByIban", () -> accountRepository.existsByIban(iban));
+		queries.put("AccountRepository.countAccountsByUserId", () -> accountRepository.countAccountsByUserId(userId));
+		queries.put("AccountRepository.checkLedgerSince", () -> accountRepository.checkLedgerSince(accountId, now));
+		queries.put("TransactionRepository.findByAccount", () -> transactionRepository.findByAccount(account));
+		queries.put("TransactionRepository.findByAccountIdOrderByTransactionDateDesc",
+			() -> transactionRepository.findByAccountIdOrderByTransactionDateDesc(accountId));
+		queries.put("TransactionRepository.findPageByAccountId",
+			() -> transactionRepository.findPageByAccountId(accountId, PageRequest.of(0, 11)));
+		queries.put("TransactionRepository.findPageByAccountIdAfter",
+			() -> transactionRepository.findPageByAccountIdAfter(accountId, now, Long.MAX_VALUE, PageRequest.of(0, 11)));
+		queries.put("TransactionRepository.findByAccountIdAndDateRange",
+			() -> transactionRepository.findByAccountIdAndDateRange(accountId, now.minusDays(1), now));
+		queries.put("TransactionRepository.findByUserId", () -> transactionRepository.findByUserId(userId));
+		queries.put("TransactionRepository.findByReferenceNumber", () -> transactionRepository.findByReferenceNumber("TXN"));
+		queries.put("TransactionRepository.findWithAccountById", () -> transactionRepository.findWithAccountById(1L));
+		queries.put("TransactionRepository.findWithAccountByReferenceNumber",
+			() -> transactionRepository.findWithAccountByReferenceNumber("TXN"));
+		queries.put("TransactionRepository.findDtosByUserId", () -> transactionRepository.findDtosByUserId(userId));
+		queries.put("TransactionRepository.streamDtosByUserId", () -> {
+			try (Stream<TransactionDto> rows = transactionRepository.streamDtosByUserId(userId)) {
+				rows.count();
+			}
+		});
+		queries.put("TransactionRepository.findByTransferId", () -> transactionRepository.findByTransferId(1L));
+		queries.put("TransactionRepository.countTransactionsByAccountId",
+			() -> transactionRepository.countTransactionsByAccountId(accountId));
+		queries.put("TransactionRepository.sumBalanceDelta",
+			() -> transactionRepository.sumBalanceDelta(accountId, now.minusDays(1), now));
+		queries.put("TransactionRepository.sumBalanceDeltaUpTo", () -> transactionRepository.sumBalanceDeltaUpTo(accountId, now));
+		queries.put("TransactionRepository.sumBalanceDeltaByAccountId",
+			() -> transactionRepository.sumBalanceDeltaByAccountId(accountId));
+		queries.put("TransactionRepository.findAccountIdsWithEntriesBetween",
+			() -> transactionRepository.findAccountIdsWithEntriesBetween(now.minusMinutes(5), now));
+		queries.put("TransactionRepository.findFirstByAccountIdOrderByTransactionDateAscIdAsc",
+			() -> transactionRepository.findFirstByAccountIdOrderByTransactionDateAscIdAsc(accountId));
+		queries.put("TransferRepository.findByAccountId", () -> transferRepository.findByAccountId(accountId));
+		queries.put("TransferRepository.findByIban", () -> transferRepository.findByIban(iban));
+		queries.put("TransferRepository.findPageByUserId", () -> transferRepository.findPageByUserId(userId, 11));
+		queries.put("TransferRepository.findPageByUserIdAfter",
+			() -> transferRepository.findPageByUserIdAfter(userId, now, Long.MAX_VALUE, 11));
+		queries.put("TransferRepository.findByReferenceNumber", () -> transferRepository.findByReferenceNumber("TRF"));
+		queries.put("TransferRepository.findWithAccountsById", () -> transferRepository.findWithAccountsById(1L));
+		queries.put("TransferRepository.findWithAccountsByReferenceNumber",
+			() -> transferRepository.findWithAccountsByReferenceNumber("TRF"));
+		queries.put("TransferRepository.findDtosByStatus",
+			() -> transferRepository.findDtosByStatus(Transfer.TransferStatus.PENDING));
+		queries.put("TransferRepository.findByStatus",
+			() -> transferRepository.findByStatus(Transfer.TransferStatus.PENDING));
+		queries.put("TransferRepository.claimByStatus",
+			() -> transferRepository.claimByStatus(Transfer.TransferStatus.PENDING, PageRequest.of(0, 10)));
+		queries.put("TransferRepository.findByIdForUpdate", () -> transferRepository.findByIdForUpdate(1L));
+		queries.put("TransferRepository.findByDateRange",
+			() -> transferRepository.findByDateRange(now.minusMinutes(1), now));
+		queries.put("TransferRepository.countTransfersByUserId", () -> transferRepository.countTransfersByUserId(userId));
+		queries.put("IdempotencyKeyRepository.findByUserIdAndIdempotencyKey",
+			() -> idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, "key"));
+		queries.put("IdempotencyKeyRepository.deleteExpired", () -> idempotencyKeyRepository.deleteExpired(now, 100));
+
+		List<String> violations = new ArrayList<>();
+		for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+			CapturingStatementInspector.start();
+			List<String> statements;
+			try {
+				transactionTemplate.executeWithoutResult(status -> {
+					query.getValue().run();
+					status.setRollbackOnly();
+				});
+			} finally {
+				statements = CapturingStatementInspector.stop();
+			}
+			assertThat(statements).as(query.getKey()).isNotEmpty();
+
+			for (String sql : statements) {
+				String plan = explain(sql);
+				Matcher scan = TABLE_SCAN.matcher(plan);
+				while (scan.find()) {
+					String table = scan.group(1);
+					Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+					if (rows > SCAN_ROW_THRESHOLD) {
+						violations.add(query.getKey() + " scans " + table + " (" + rows + " rows):\n" + plan);
+					}
+				}
+			}
+		}
+
+		assertThat(violations).isEmpty();
+	}
+
+	private String explain(String sql) {
+		return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+			try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+				// Plans are chosen before values are known, so every parameter can stay null
+				int parameters = statement.getParameterMetaData().getParameterCount();
+				for (int i = 1; i <= parameters; i++) {
+					statement.setNull(i, Types.NULL);
+				}
+				try (ResultSet resultSet = statement.executeQuery()) {
+					StringBuilder plan = new StringBuilder();
+					while (resultSet.next()) {
+						plan.append(resultSet.getString(1)).append('\n');
+					}
+					return plan.toString();
+				}
+			}
+		});
+	}
+
+	private Account seed() {
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < USERS; i++) {
+			users.add(new User("plan-user-" + i, "not-a-real-hash", "plan-user-" + i + "@example.com",
+				"Plan", "User", User.Role.CLIENT));
+		}
+		userRepository.saveAll(users);
+
+		List<Account> accounts = new ArrayList<>();
+		for (int i = 0; i < USERS; i++) {
+			Account account = new Account(String.format("PL%026d", i), "Plan account", Account.AccountType.CHECKING, users.get(i));
+			account.setBalance(new BigDecimal("1000.00"));
+			accounts.add(account);
+		}
+		accountRepository.saveAll(accounts);
+
+		List<Transfer> transfers = new ArrayList<>();
+		List<Transaction> transactions = new ArrayList<>();
+		for (int i = 0; i < TRANSFERS; i++) {
+			Account from = accounts.get(i % USERS);
+			Account to = accounts.get((i + 1) % USERS);
+			Transfer transfer = new Transfer(BigDecimal.ONE, from.getIban(), to.getIban(), "Plan", "Plan transfer", from);
+			transfer.setToAccount(to);
+			transfer.setStatus(Transfer.TransferStatus.COMPLETED);
+			transfers.add(transfer);
+
+			Transaction out = new Transaction(BigDecimal.ONE, Transaction.TransactionType.TRANSFER_OUT, from, "Plan out");
+			out.setTransfer(transfer);
+			Transaction in = new Transaction(BigDecimal.ONE, Transaction.TransactionType.TRANSFER_IN, to, "Plan in");
+			in.setTransfer(transfer);
+			transactions.add(out);
+			transactions.add(in);
+		}
+		transferRepository.saveAll(transfers);
+		transactionRepository.saveAll(transactions);
+		return accounts.get(0);
+	}
+}
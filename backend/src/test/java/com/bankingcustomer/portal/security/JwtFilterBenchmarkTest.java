@@ -0,0 +1,146 @@
+package com.bankingcustomer.portal.security;
+
+import com.bankingcustomer.portal.entity.User;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Throughput of the stateless JWT filter path at 1, 8 and 32 threads. After the first request a
+ * token is served from the validated-token cache, so the signature is verified only once.
+ */
+class JwtFilterBenchmarkTest {
+
+	private static final String SECRET = "defaultSecretKeyForDevelopmentOnly123456789012345678901234567890";
+	private static final int WARMUP = 2_000;
+	private static final int REQUESTS_PER_THREAD = 5_000;
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void filterThroughput() throws Exception {
+		User user = new User("benchmark", "secret", "benchmark@example.com", "Bench", "Mark", User.Role.CLIENT);
+		user.setId(1L);
+		JwtUtils jwtUtils = jwtUtils(60_000);
+		JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+		ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+		ReflectionTestUtils.setField(filter, "userDetailsService", (UserDetailsService) username -> user);
+		ReflectionTestUtils.setField(filter, "userDenylist", new UserDenylist());
+		ReflectionTestUtils.setField(filter, "statelessAuth", true);
+		String token = jwtUtils.generateToken(user);
+
+		for (int i = 0; i < WARMUP; i++) {
+			assertThat(authenticate(filter, token)).isTrue();
+		}
+		assertThat(jwtUtils.getValidatedClaims(token)).isSameAs(jwtUtils.getValidatedClaims(token));
+
+		for (int threads : new int[] {1, 8, 32}) {
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				CountDownLatch start = new CountDownLatch(1);
+				List<Future<Integer>> results = new ArrayList<>();
+				for (int t = 0; t < threads; t++) {
+					results.add(executor.submit(() -> {
+						start.await();
+						int authenticated = 0;
+						for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+							if (authenticate(filter, token)) {
+								authenticated++;
+							}
+						}
+						return authenticated;
+					}));
+				}
+
+				long begin = System.nanoTime();
+				start.countDown();
+				int authenticated = 0;
+				for (Future<Integer> result : results) {
+					authenticated += result.get();
+				}
+				long elapsedNanos = System.nanoTime() - begin;
+
+				int requests = threads * REQUESTS_PER_THREAD;
+				System.out.printf("JWT filter, %d threads: %.0f requests/s, %.2f us/request%n",
+					threads, requests / (elapsedNanos / 1e9), elapsedNanos / 1000.0 / requests);
+				assertThat(authenticated).isEqualTo(requests);
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	@Test
+	void rejectsTamperedAndExpiredTokens() {
+		User user = new User("benchmark", "secret", "benchmark@example.com", "Bench", "Mark", User.Role.CLIENT);
+		JwtUtils jwtUtils = jwtUtils(60_000);
+		String token = jwtUtils.generateToken(user);
+
+		assertThat(jwtUtils.getValidatedClaims(token).getSubject()).isEqualTo("benchmark");
+		assertThat(jwtUtils.getValidatedClaims(token + "x")).isNull();
+		assertThat(jwtUtils.getValidatedClaims("not-a-token")).isNull();
+
+		JwtUtils expiring = jwtUtils(-1000);
+		assertThat(expiring.getValidatedClaims(expiring.generateToken(user))).isNull();
+	}
+
+	@Test
+	void fullCacheKeepsCachingNewTokensAndHandsOutReadOnlyClaims() {
+		JwtUtils jwtUtils = jwtUtils(60_000);
+		for (int i = 0; i < 100; i++) {
+			User user = new User("user" + i, "secret", "user" + i + "@example.com", "Us", "Er", User.Role.CLIENT);
+			jwtUtils.getValidatedClaims(jwtUtils.generateToken(user));
+		}
+		Map<?, ?> cache = (Map<?, ?>) ReflectionTestUtils.getField(jwtUtils, "validatedTokens");
+		assertThat(cache.size()).isLessThanOrEqualTo(16);
+
+		// Past capacity with only live tokens, a new one is still cached
+		String token = jwtUtils.generateToken(
+			new User("late", "secret", "late@example.com", "La", "Te", User.Role.CLIENT));
+		Claims claims = jwtUtils.getValidatedClaims(token);
+		assertThat(jwtUtils.getValidatedClaims(token)).isSameAs(claims);
+		assertThatThrownBy(() -> claims.setSubject("someone-else")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> claims.put("role", "ADMIN")).isInstanceOf(UnsupportedOperationException.class);
+		assertThat(jwtUtils.getValidatedClaims(token).getSubject()).isEqualTo("late");
+	}
+
+	private boolean authenticate(JwtAuthenticationFilter filter, String token) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/accounts");
+		request.addHeader("Authorization", "Bearer " + token);
+		try {
+			filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+			return SecurityContextHolder.getContext().getAuthentication() != null;
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+	private JwtUtils jwtUtils(int expirationMs) {
+		JwtUtils jwtUtils = new JwtUtils();
+		ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+		ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", expirationMs);
+		ReflectionTestUtils.setField(jwtUtils, "cacheMaxEntries", 16);
+		jwtUtils.init();
+		return jwtUtils;
+	}
+}
@@ -0,0 +1,76 @@
+package com.bankingcustomer.portal.security;
+
+import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.repository.CapturingStatementInspector;
+import com.bankingcustomer.portal.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Authenticated requests are served from the token claims without loading the user, and tokens
+ * of a disabled user, or of one whose role changed, are turned away by the denylist.
+ */
+@SpringBootTest
+class StatelessAuthenticationTest {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Test
+	void authenticatesFromClaimsUntilTheUserIsDisabled() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+		User user = userService.createUser(
+			new User("stateless", "stateless123", "stateless@example.com", "State", "Less", User.Role.CLIENT));
+		String token = jwtUtils.generateToken(user);
+
+		CapturingStatementInspector.start();
+		List<String> statements;
+		try {
+			mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + token))
+				.andExpect(status().isOk());
+		} finally {
+			statements = CapturingStatementInspector.stop();
+		}
+		assertThat(statements).noneMatch(sql -> sql.contains("from users"));
+
+		userService.disableUser(user.getId());
+
+		mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + token))
+			.andExpect(status().is4xxClientError());
+	}
+
+	@Test
+	void roleChangeRevokesTokensIssuedBefore() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+		User user = userService.createUser(
+			new User("promoted", "promoted123", "promoted@example.com", "Pro", "Moted", User.Role.CLIENT));
+		String token = jwtUtils.generateToken(user);
+		mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + token))
+			.andExpect(status().isOk());
+
+		User changed = new User(user.getUsername(), user.getPassword(), user.getEmail(),
+			user.getFirstName(), user.getLastName(), User.Role.ADMIN);
+		changed.setId(user.getId());
+		userService.updateUser(changed);
+
+		mockMvc.perform(get("/api/accounts").header("Authorization", "Bearer " + token))
+			.andExpect(status().is4xxClientError());
+	}
+}
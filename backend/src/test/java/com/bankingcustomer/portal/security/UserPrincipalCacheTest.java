@@ -0,0 +1,93 @@
+package com.bankingcustomer.portal.security;
+
+import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.repository.CapturingStatementInspector;
+import com.bankingcustomer.portal.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Repeated lookups are served from the cache, committed user changes evict the entry, and a load
+ * that raced an invalidation is not stored.
+ */
+@SpringBootTest
+class UserPrincipalCacheTest {
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserPrincipalCache userPrincipalCache;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void cachesUntilTheUserChanges() {
+		User user = userService.createUser(
+			new User("cached", "cached123", "cached@example.com", "Cach", "Ed", User.Role.CLIENT));
+		double hitsBefore = hits();
+
+		assertThat(statementsFor("cached")).hasSize(1);
+		assertThat(statementsFor("cached")).isEmpty();
+		assertThat(hits() - hitsBefore).isEqualTo(1.0);
+
+		userService.disableUser(user.getId());
+
+		assertThat(statementsFor("cached")).hasSize(1);
+		assertThat(userDetailsService.loadUserByUsername("cached").isEnabled()).isFalse();
+
+		userService.enableUser(user.getId());
+
+		assertThat(userDetailsService.loadUserByUsername("cached").isEnabled()).isTrue();
+	}
+
+	@Test
+	void loadRacingAnInvalidationIsNotCached() {
+		User user = userService.createUser(
+			new User("racing", "racing123", "racing@example.com", "Rac", "Ing", User.Role.CLIENT));
+
+		UserPrincipal loaded = userPrincipalCache.get("racing", () -> {
+			// The user changes and is invalidated while the stale row is being loaded
+			userPrincipalCache.invalidate(user.getId());
+			return user;
+		});
+		assertThat(loaded).isNotSameAs(user);
+		assertThat(loaded.getId()).isEqualTo(user.getId());
+
+		AtomicInteger loads = new AtomicInteger();
+		userPrincipalCache.get("racing", () -> {
+			loads.incrementAndGet();
+			return user;
+		});
+		assertThat(loads).hasValue(1);
+	}
+
+	private List<String> statementsFor(String username) {
+		CapturingStatementInspector.start();
+		List<String> statements;
+		UserDetails userDetails;
+		try {
+			userDetails = userDetailsService.loadUserByUsername(username);
+		} finally {
+			statements = CapturingStatementInspector.stop();
+		}
+		assertThat(userDetails.getUsername()).isEqualTo(username);
+		return statements;
+	}
+
+	private double hits() {
+		return meterRegistry.counter("portal.user-cache.requests", "result", "hit").count();
+	}
+}
@@ -0,0 +1,152 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.dto.account.AccountActivityDto;
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.AccountActivityRollup;
+import com.bankingcustomer.portal.entity.Transaction;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class AccountAnalyticsServiceTest {
+
+	@Autowired
+	private AccountAnalyticsService accountAnalyticsService;
+
+	@Autowired
+	private AccountActivityRollupWriter rollupWriter;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private TransferService transferService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void incrementalRollupsMatchTheBackfill() {
+		User owner = userService.createUser(
+			new User("analyst", "analyst123", "analyst@example.com", "Ana", "Lyst", User.Role.CLIENT));
+		Account account = createAccount(owner, new BigDecimal("1000.00"));
+		Account savings = createAccount(owner, BigDecimal.ZERO);
+		LocalDateTime lastMonth = LocalDateTime.now().minusMonths(1);
+
+		record(account, Transaction.TransactionType.CREDIT, "10.00", lastMonth);
+		record(account, Transaction.TransactionType.CREDIT, "200.00", LocalDateTime.now());
+		record(account, Transaction.TransactionType.DEBIT, "50.00", LocalDateTime.now());
+		transferService.executeTransfer(new Transfer(new BigDecimal("100.00"), account.getIban(), savings.getIban(), "Me", "Savings", null));
+		rollupWriter.flush();
+
+		List<AccountActivityDto> incremental = months(account);
+		assertMonths(incremental);
+		List<AccountActivityDto> days = accountAnalyticsService.getAnalytics(
+			account.getId(), AccountActivityRollup.Granularity.DAY, null, null);
+		assertThat(days.get(days.size() - 1).getPeriodStart()).isEqualTo(LocalDate.now());
+		assertThat(days.get(days.size() - 1).getTransactionCount()).isEqualTo(4);
+
+		assertThat(accountAnalyticsService.backfill()).isPositive();
+		assertMonths(months(account));
+
+		assertThatThrownBy(() -> accountAnalyticsService.parseGranularity("week"))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void entriesPostedAroundARebuildAreCountedOnce() {
+		User owner = userService.createUser(
+			new User("rebuilder", "rebuilder123", "rebuilder@example.com", "Re", "Builder", User.Role.CLIENT));
+		Account account = createAccount(owner, new BigDecimal("1000.00"));
+
+		// Still queued when the rebuild starts, so counted by the rebuild rather than the writer
+		record(account, Transaction.TransactionType.CREDIT, "10.00", LocalDateTime.now());
+		record(account, Transaction.TransactionType.CREDIT, "10.00", LocalDateTime.now());
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<?> lateCredit = new TransactionTemplate(transactionManager).execute(status -> {
+				accountAnalyticsService.rebuild(account.getId(), account.getId());
+				// Waits for the rebuild's lock on the account, so it is left to the writer
+				Future<?> credit = executor.submit(
+					() -> record(account, Transaction.TransactionType.CREDIT, "5.00", LocalDateTime.now()));
+				// A flush while the rebuild is open has nothing of the range left to merge
+				assertThat(executor.submit(rollupWriter::flush)).succeedsWithin(Duration.ofSeconds(5));
+				return credit;
+			});
+			assertThat(lateCredit).succeedsWithin(Duration.ofSeconds(10));
+		} finally {
+			executor.shutdown();
+		}
+		rollupWriter.flush();
+
+		assertToday(account, "25.00", 3);
+		accountAnalyticsService.backfill();
+		assertToday(account, "25.00", 3);
+	}
+
+	private void assertToday(Account account, String credits, long entries) {
+		List<AccountActivityDto> days = accountAnalyticsService.getAnalytics(
+			account.getId(), AccountActivityRollup.Granularity.DAY, null, null);
+		assertThat(days).hasSize(1);
+		assertThat(days.get(0).getCredits()).isEqualByComparingTo(credits);
+		assertThat(days.get(0).getTransactionCount()).isEqualTo(entries);
+	}
+
+	private List<AccountActivityDto> months(Account account) {
+		return accountAnalyticsService.getAnalytics(account.getId(), AccountActivityRollup.Granularity.MONTH, null, null);
+	}
+
+	private static void assertMonths(List<AccountActivityDto> months) {
+		assertThat(months).hasSize(2);
+		AccountActivityDto previous = months.get(0);
+		assertThat(previous.getPeriodStart()).isEqualTo(LocalDate.now().minusMonths(1).withDayOfMonth(1));
+		assertThat(previous.getCredits()).isEqualByComparingTo("10.00");
+		assertThat(previous.getTransactionCount()).isEqualTo(1);
+
+		// Credit, debit, transfer out and its fee
+		AccountActivityDto current = months.get(1);
+		assertThat(current.getCredits()).isEqualByComparingTo("200.00");
+		assertThat(current.getDebits()).isEqualByComparingTo("150.00");
+		assertThat(current.getFees()).isEqualByComparingTo("0.50");
+		assertThat(current.getNet()).isEqualByComparingTo("49.50");
+		assertThat(current.getTransactionCount()).isEqualTo(4);
+		assertThat(current.getMinBalance()).isEqualByComparingTo("1059.50");
+		assertThat(current.getMaxBalance()).isEqualByComparingTo("1210.00");
+	}
+
+	private void record(Account account, Transaction.TransactionType type, String amount, LocalDateTime date) {
+		Transaction transaction = new Transaction(new BigDecimal(amount), type, account, "Analytics test");
+		transaction.setTransactionDate(date);
+		transactionService.createTransaction(transaction);
+	}
+
+	private Account createAccount(User owner, BigDecimal balance) {
+		Account account = new Account(accountService.generateIban(), "Analytics account", Account.AccountType.CHECKING, owner);
+		account.setBalance(balance);
+		return accountService.createAccount(account);
+	}
+}
@@ -0,0 +1,107 @@
+package com.bankingcustomer.portal.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A client that stops reading holds one writer and is disconnected once its queue is full, while
+ * the publisher never waits and other streams keep flowing.
+ */
+class AccountStreamConnectionTest {
+
+	@Test
+	void slowClientIsDisconnectedWithoutBlockingThePublisherOrOtherStreams() throws Exception {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ExecutorService writers = Executors.newFixedThreadPool(2);
+		CountDownLatch unblock = new CountDownLatch(1);
+		try {
+			RecordingEmitter slowEmitter = new RecordingEmitter(unblock);
+			RecordingEmitter fastEmitter = new RecordingEmitter(null);
+			AtomicInteger closed = new AtomicInteger();
+			AccountStreamConnection slow = new AccountStreamConnection(slowEmitter, 4, writers,
+				meterRegistry.counter("events"), meterRegistry.counter("dropped"), connection -> closed.incrementAndGet());
+			// Room for all of its events even if its writer has not started yet
+			AccountStreamConnection fast = new AccountStreamConnection(fastEmitter, 16, writers,
+				meterRegistry.counter("events"), meterRegistry.counter("dropped"), connection -> closed.incrementAndGet());
+			slow.prime(List.of());
+			fast.prime(List.of());
+
+			// The first event is stuck in the socket, four more fill the queue and the sixth overflows it
+			long started = System.nanoTime();
+			for (int i = 0; i < 6; i++) {
+				slow.offer(SseEmitter.event().data("slow-" + i));
+				fast.offer(SseEmitter.event().data("fast-" + i));
+				if (i == 0) {
+					assertThat(slowEmitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+				}
+			}
+			assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1000);
+			assertThat(slow.offer(SseEmitter.event().data("after"))).isFalse();
+			assertThat(closed.get()).isEqualTo(1);
+			assertThat(meterRegistry.counter("dropped").count()).isEqualTo(1.0);
+
+			fastEmitter.awaitSent(6);
+
+			unblock.countDown();
+			assertThat(slowEmitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(slowEmitter.sent).hasSize(1);
+		} finally {
+			unblock.countDown();
+			writers.shutdownNow();
+		}
+	}
+
+	private static class RecordingEmitter extends SseEmitter {
+
+		private final CountDownLatch unblock;
+
+		private final CountDownLatch sending = new CountDownLatch(1);
+
+		private final CountDownLatch completed = new CountDownLatch(1);
+
+		private final List<SseEventBuilder> sent = new CopyOnWriteArrayList<>();
+
+		RecordingEmitter(CountDownLatch unblock) {
+			this.unblock = unblock;
+		}
+
+		@Override
+		public void send(SseEventBuilder event) throws IOException {
+			sending.countDown();
+			if (unblock != null) {
+				try {
+					unblock.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException(e);
+				}
+			}
+			sent.add(event);
+		}
+
+		@Override
+		public synchronized void complete() {
+			completed.countDown();
+		}
+
+		void awaitSent(int count) throws InterruptedException {
+			long deadline = System.currentTimeMillis() + 5000;
+			while (sent.size() < count && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(sent).hasSize(count);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.dto.admin.AdminStatsDto;
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class AdminStatsServiceTest {
+
+	@Autowired
+	private AdminStatsService adminStatsService;
+
+	@Autowired
+	private TransferService transferService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	void countersFollowCommitsAndMatchTheRollup() {
+		adminStatsService.rollup();
+		AdminStatsDto before = adminStatsService.getStats();
+
+		User owner = userService.createUser(
+			new User("statser", "statser123", "statser@example.com", "Sta", "Tser", User.Role.CLIENT));
+		Account from = createAccount(owner, Account.AccountType.CHECKING, new BigDecimal("500.00"));
+		Account to = createAccount(owner, Account.AccountType.SAVINGS, BigDecimal.ZERO);
+		transferService.executeTransfer(new Transfer(new BigDecimal("100.00"), from.getIban(), to.getIban(), "Stats", "Saving", null));
+		Transfer pending = transferService.submitTransfer(
+			new Transfer(new BigDecimal("10.00"), from.getIban(), to.getIban(), "Stats", "Later", null));
+		transferService.cancelTransfer(pending.getId(), "Changed my mind");
+
+		AdminStatsDto after = adminStatsService.getStats();
+		assertThat(after.getTotalUsers()).isEqualTo(before.getTotalUsers() + 1);
+		assertThat(after.getTotalAccounts()).isEqualTo(before.getTotalAccounts() + 2);
+		// Only the fee leaves the system, the transfer itself moves money between the two types
+		BigDecimal fee = new BigDecimal("0.50");
+		assertThat(after.getTotalBalance()).isEqualByComparingTo(before.getTotalBalance().add(new BigDecimal("500.00")).subtract(fee));
+		assertThat(balanceOf(after, "SAVINGS").subtract(balanceOf(before, "SAVINGS"))).isEqualByComparingTo("100.00");
+		assertThat(after.getTransfersByStatus().get("COMPLETED").getCount() - before.getTransfersByStatus().get("COMPLETED").getCount()).isEqualTo(1);
+		assertThat(after.getTransfersByStatus().get("PENDING").getCount()).isEqualTo(before.getTransfersByStatus().get("PENDING").getCount());
+		assertThat(after.getTransfersByStatus().get("CANCELLED").getCount() - before.getTransfersByStatus().get("CANCELLED").getCount()).isEqualTo(1);
+		assertThat(after.getTransactionsByDay())
+			.anyMatch(day -> day.getDate().equals(LocalDate.now()) && day.getTransactionType().equals("TRANSFER_IN"));
+
+		// The incremental counters agree with a fresh rollup
+		adminStatsService.rollup();
+		AdminStatsDto rolledUp = adminStatsService.getStats();
+		assertThat(rolledUp.getTotalUsers()).isEqualTo(after.getTotalUsers());
+		assertThat(rolledUp.getTotalAccounts()).isEqualTo(after.getTotalAccounts());
+		assertThat(rolledUp.getTotalBalance()).isEqualByComparingTo(after.getTotalBalance());
+		for (String status : after.getTransfersByStatus().keySet()) {
+			assertThat(rolledUp.getTransfersByStatus().get(status).getCount()).isEqualTo(after.getTransfersByStatus().get(status).getCount());
+		}
+	}
+
+	private static BigDecimal balanceOf(AdminStatsDto stats, String accountType) {
+		return stats.getAccountsByType().get(accountType).getAmount();
+	}
+
+	private Account createAccount(User owner, Account.AccountType type, BigDecimal balance) {
+		Account account = new Account(accountService.generateIban(), "Stats account", type, owner);
+		account.setBalance(balance);
+		return accountService.createAccount(account);
+	}
+}
@@ -0,0 +1,66 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transaction;
+import com.bankingcustomer.portal.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BalanceSnapshotServiceTest {
+
+	@Autowired
+	private BalanceSnapshotService balanceSnapshotService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	void historicalBalancesReplayFromTheNearestSnapshot() {
+		User owner = userService.createUser(
+			new User("snapper", "snapper123", "snapper@example.com", "Sna", "Pper", User.Role.CLIENT));
+		Account account = new Account(accountService.generateIban(), "Snapshot account", Account.AccountType.CHECKING, owner);
+		account.setBalance(new BigDecimal("100.00"));
+		Account created = accountService.createAccount(account);
+		LocalDateTime now = LocalDateTime.now();
+
+		record(created, Transaction.TransactionType.CREDIT, "50.00", now.minusDays(3));
+		record(created, Transaction.TransactionType.DEBIT, "20.00", now.minusDays(2));
+
+		// No snapshot yet, balances are replayed from the opening balance
+		assertThat(balanceSnapshotService.getBalanceAt(created.getId(), now.minusDays(4))).isEqualByComparingTo("100.00");
+		assertThat(balanceSnapshotService.getBalanceAt(created.getId(), now.minusHours(60))).isEqualByComparingTo("150.00");
+
+		assertThat(balanceSnapshotService.takeSnapshots(now.minusDays(1))).isGreaterThanOrEqualTo(1);
+		assertThat(balanceSnapshotService.takeSnapshots(now.minusDays(1))).isZero();
+		assertThat(balanceSnapshotService.reconcile(created.getId())).isTrue();
+
+		record(created, Transaction.TransactionType.CREDIT, "5.00", now.minusHours(1));
+		assertThat(balanceSnapshotService.getBalanceAt(created.getId(), now.minusHours(36))).isEqualByComparingTo("130.00");
+		assertThat(balanceSnapshotService.getBalanceAt(created.getId(), now.minusHours(12))).isEqualByComparingTo("130.00");
+		assertThat(balanceSnapshotService.getBalanceAt(created.getId(), now)).isEqualByComparingTo("135.00");
+		assertThat(balanceSnapshotService.reconcile(created.getId())).isTrue();
+
+		// A balance written outside the ledger is caught on the next reconciliation
+		accountService.updateAccountBalance(created.getId(), new BigDecimal("1000.00"));
+		assertThat(balanceSnapshotService.reconcile(created.getId())).isFalse();
+	}
+
+	private void record(Account account, Transaction.TransactionType type, String amount, LocalDateTime date) {
+		Transaction transaction = new Transaction(new BigDecimal(amount), type, account, "Snapshot test");
+		transaction.setTransactionDate(date);
+		transactionService.createTransaction(transaction);
+	}
+}
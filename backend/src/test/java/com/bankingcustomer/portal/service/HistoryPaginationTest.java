@@ -0,0 +1,86 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.dto.CursorPage;
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transaction;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class HistoryPaginationTest {
+
+	private static final int TRANSFERS = 25;
+
+	@Autowired
+	private TransferService transferService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	void cursorsWalkTheWholeHistoryOnce() {
+		User owner = userService.createUser(
+			new User("pager", "pager123", "pager@example.com", "Pa", "Ger", User.Role.CLIENT));
+		Account from = createAccount(owner, new BigDecimal("1000.00"));
+		Account to = createAccount(owner, BigDecimal.ZERO);
+		for (int i = 0; i < TRANSFERS; i++) {
+			transferService.executeTransfer(
+				new Transfer(new BigDecimal("1.00"), from.getIban(), to.getIban(), "Pager", "Page " + i, null));
+		}
+
+		// Every transfer leaves a debit and a fee entry on the source account
+		List<Long> pageSizes = new ArrayList<>();
+		Set<Long> seen = new HashSet<>();
+		Transaction previous = null;
+		String cursor = null;
+		do {
+			CursorPage<Transaction> page = transactionService.getTransactionsByAccount(from.getId(), cursor, 20);
+			pageSizes.add((long) page.getContent().size());
+			for (Transaction transaction : page.getContent()) {
+				assertThat(seen.add(transaction.getId())).isTrue();
+				if (previous != null) {
+					assertThat(transaction.getTransactionDate()).isBeforeOrEqualTo(previous.getTransactionDate());
+				}
+				previous = transaction;
+			}
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+		assertThat(pageSizes).containsExactly(20L, 20L, 10L);
+
+		int transfers = 0;
+		cursor = null;
+		do {
+			CursorPage<Transfer> page = transferService.getTransfersByUserId(owner.getId(), cursor, 10);
+			transfers += page.getContent().size();
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+		assertThat(transfers).isEqualTo(TRANSFERS);
+
+		assertThatThrownBy(() -> transactionService.getTransactionsByAccount(from.getId(), "not-a-cursor", 10))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private Account createAccount(User owner, BigDecimal balance) {
+		Account account = new Account(accountService.generateIban(), "Paged account", Account.AccountType.CHECKING, owner);
+		account.setBalance(balance);
+		return accountService.createAccount(account);
+	}
+}
@@ -0,0 +1,144 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transaction;
+import com.bankingcustomer.portal.entity.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Heap and CPU spent listing 10k ledger entries in a read-write transaction against the read-only
+ * path the services use. The read-only listing keeps no loaded-state snapshots and skips the
+ * dirty-checking flush on commit.
+ */
+@SpringBootTest
+class ReadOnlyListingBenchmarkTest {
+
+	private static final int ROWS = 10_000;
+	// Seeded outside the range the sequence hands out to the other tests
+	private static final long FIRST_ID = 900_000_000L;
+	private static final int WARMUP = 3;
+	private static final int ITERATIONS = 5;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void readOnlyListingSkipsDirtyCheckingState() {
+		User owner = userService.createUser(
+			new User("lister", "lister123", "lister@example.com", "Lis", "Ter", User.Role.CLIENT));
+		Account account = new Account(accountService.generateIban(), "Listing account", Account.AccountType.CHECKING, owner);
+		account.setBalance(new BigDecimal(ROWS));
+		Long accountId = accountService.createAccount(account).getId();
+		seed(accountId);
+		try {
+			TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+			TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+			readOnly.setReadOnly(true);
+
+			Listing unmarked = measure(readWrite, () -> entityManager.createQuery(
+					"SELECT t FROM Transaction t WHERE t.account.id = :accountId ORDER BY t.transactionDate DESC",
+					Transaction.class)
+				.setParameter("accountId", accountId)
+				.getResultList());
+			Listing marked = measure(readOnly, () -> transactionService.getTransactionsByAccountId(accountId));
+
+			System.out.printf("%d-row listing, read-write: %.0f KB allocated, %.1f ms CPU, %d snapshots%n",
+				ROWS, unmarked.allocatedBytes / 1024.0, unmarked.cpuNanos / 1e6, unmarked.snapshots);
+			System.out.printf("%d-row listing, read-only:  %.0f KB allocated, %.1f ms CPU, %d snapshots%n",
+				ROWS, marked.allocatedBytes / 1024.0, marked.cpuNanos / 1e6, marked.snapshots);
+
+			assertThat(unmarked.rows).isEqualTo(ROWS);
+			assertThat(marked.rows).isEqualTo(ROWS);
+			assertThat(unmarked.snapshots).isEqualTo(ROWS);
+			assertThat(marked.snapshots).isZero();
+			assertThat(marked.flushMode).isEqualTo(FlushMode.MANUAL);
+		} finally {
+			jdbcTemplate.update("DELETE FROM transactions WHERE account_id = ?", accountId);
+		}
+	}
+
+	private void seed(Long accountId) {
+		LocalDateTime start = LocalDateTime.now().minusDays(30);
+		List<Object[]> rows = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			rows.add(new Object[] {
+				FIRST_ID + i, Timestamp.valueOf(start.plusMinutes(i)), new BigDecimal(i + 1), accountId
+			});
+		}
+		jdbcTemplate.batchUpdate(
+			"INSERT INTO transactions (id, amount, transaction_type, transaction_date, fee, description, balance_after, account_id) " +
+			"VALUES (?, 1.00, 'CREDIT', ?, 0.00, 'Listing benchmark', ?, ?)", rows);
+	}
+
+	// Averages over the measured runs; allocation and CPU include the commit, where the flush runs
+	private Listing measure(TransactionTemplate template, Supplier<List<Transaction>> listing) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		Listing result = new Listing();
+		for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+			long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+			long cpuBefore = threads.getCurrentThreadCpuTime();
+			template.executeWithoutResult(status -> {
+				List<Transaction> transactions = listing.get();
+				SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+				result.rows = transactions.size();
+				result.snapshots = 0;
+				for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+					if (entry.getKey() instanceof Transaction && entry.getValue().getLoadedState() != null) {
+						result.snapshots++;
+					}
+				}
+				result.flushMode = session.getHibernateFlushMode();
+			});
+			if (i >= WARMUP) {
+				result.allocatedBytes += (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / ITERATIONS;
+				result.cpuNanos += (threads.getCurrentThreadCpuTime() - cpuBefore) / ITERATIONS;
+			}
+		}
+		return result;
+	}
+
+	private static final class Listing {
+
+		private int rows;
+		private int snapshots;
+		private FlushMode flushMode;
+		private long allocatedBytes;
+		private long cpuNanos;
+	}
+}
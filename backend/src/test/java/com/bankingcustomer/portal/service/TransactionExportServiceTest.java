@@ -0,0 +1,79 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.entity.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TransactionExportServiceTest {
+
+	private static final int TRANSFERS = 30;
+
+	@Autowired
+	private TransactionExportService transactionExportService;
+
+	@Autowired
+	private TransferService transferService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void exportsEveryLedgerEntryOfTheUser() throws Exception {
+		User owner = userService.createUser(
+			new User("exporter", "exporter123", "exporter@example.com", "Ex", "Porter", User.Role.CLIENT));
+		Account from = createAccount(owner, new BigDecimal("1000.00"));
+		Account to = createAccount(owner, BigDecimal.ZERO);
+		for (int i = 0; i < TRANSFERS; i++) {
+			transferService.executeTransfer(
+				new Transfer(new BigDecimal("2.00"), from.getIban(), to.getIban(), "Export", "Rent, \"June\" " + i, null));
+		}
+		transactionService.createCreditTransaction(to, BigDecimal.ONE, "=HYPERLINK(\"http://example.com\")");
+		// Debit and fee on the source, credit on the destination, plus the formula-like credit
+		int expectedRows = TRANSFERS * 3 + 1;
+
+		ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+		long written = transactionExportService.exportForUser(owner.getId(), TransactionExportService.Format.NDJSON, ndjson);
+		String[] lines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+		assertThat(written).isEqualTo(expectedRows);
+		assertThat(lines).hasSize(expectedRows);
+		JsonNode first = objectMapper.readTree(lines[0]);
+		assertThat(first.get("accountIban").asText()).isIn(from.getIban(), to.getIban());
+		assertThat(first.get("transactionDate").isTextual()).isTrue();
+
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		transactionExportService.exportForUser(owner.getId(), TransactionExportService.Format.CSV, csv);
+		String[] rows = csv.toString(StandardCharsets.UTF_8).split("\n");
+		assertThat(rows).hasSize(expectedRows + 1);
+		assertThat(rows[0]).startsWith("id,transactionDate,transactionType");
+		assertThat(csv.toString(StandardCharsets.UTF_8)).contains("Rent, \"\"June\"\" ");
+		// Neutralised so spreadsheets show it as text instead of evaluating it
+		assertThat(csv.toString(StandardCharsets.UTF_8)).contains(",\"'=HYPERLINK(\"\"http://example.com\"\")\"");
+	}
+
+	private Account createAccount(User owner, BigDecimal balance) {
+		Account account = new Account(accountService.generateIban(), "Export account", Account.AccountType.CHECKING, owner);
+		account.setBalance(balance);
+		return accountService.createAccount(account);
+	}
+}
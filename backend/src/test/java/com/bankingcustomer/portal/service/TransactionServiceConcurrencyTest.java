@@ -0,0 +1,103 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transaction;
+import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TransactionServiceConcurrencyTest {
+
+	private static final int THREADS = 16;
+	private static final int DEBITS = 400;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void concurrentDebitsNeverOverdraw() throws Exception {
+		User owner = userService.createUser(
+			new User("debits", "debits123", "debits@example.com", "Debit", "Test", User.Role.CLIENT));
+		Account account = new Account(accountService.generateIban(), "Debited account",
+			Account.AccountType.CHECKING, owner);
+		account.setBalance(new BigDecimal("100.00"));
+		Account saved = accountService.createAccount(account);
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<Transaction>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < DEBITS; i++) {
+				results.add(pool.submit(() ->
+					transactionService.createDebitTransaction(saved, BigDecimal.ONE, "Concurrent debit")));
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		int succeeded = 0;
+		for (Future<Transaction> result : results) {
+			try {
+				result.get();
+				succeeded++;
+			} catch (ExecutionException e) {
+				assertThat(e.getCause()).hasMessage("Insufficient balance for transaction");
+			}
+		}
+
+		assertThat(succeeded).isEqualTo(100);
+		assertThat(accountService.getAccountBalance(saved.getId())).isEqualByComparingTo(BigDecimal.ZERO);
+	}
+
+	@Test
+	void reversalRefreshesTheManagedAccount() {
+		User owner = userService.createUser(
+			new User("reverser", "reverser123", "reverser@example.com", "Re", "Verser", User.Role.CLIENT));
+		Account account = new Account(accountService.generateIban(), "Reversed account",
+			Account.AccountType.CHECKING, owner);
+		account.setBalance(new BigDecimal("100.00"));
+		Account saved = accountService.createAccount(account);
+		Transaction credit = transactionService.createCreditTransaction(saved, new BigDecimal("40.00"), "Credited");
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			Account managed = transactionRepository.findById(credit.getId()).orElseThrow().getAccount();
+			assertThat(managed.getBalance()).isEqualByComparingTo("140.00");
+
+			transactionService.reverseTransaction(credit.getId(), "Refunded");
+
+			// Same instance, updated in place, and a later change to it passes the version check
+			assertThat(managed.getBalance()).isEqualByComparingTo("100.00");
+			managed.setAccountName("Renamed after reversal");
+		});
+
+		assertThat(accountService.getAccountBalance(saved.getId())).isEqualByComparingTo("100.00");
+		assertThat(accountService.getAccountById(saved.getId()).orElseThrow().getAccountName())
+			.isEqualTo("Renamed after reversal");
+	}
+}
@@ -0,0 +1,120 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.dto.transfer.TransferBatchReport;
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TransferBatchServiceTest {
+
+	private static final int LINES = 1200;
+	private static final int BENCHMARK_TRANSFERS = 2000;
+	// Well under the 9-12x measured on in-process H2, a guard against regressions rather than a target
+	private static final double MIN_SPEEDUP = 5.0;
+
+	@Autowired
+	private TransferBatchService transferBatchService;
+
+	@Autowired
+	private TransferService transferService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	void batchReportsEveryLineAndSettlesValidOnes() {
+		User payer = userService.createUser(
+			new User("payroll", "payroll123", "payroll@example.com", "Pay", "Roll", User.Role.CLIENT));
+		User other = userService.createUser(
+			new User("outsider", "outsider123", "outsider@example.com", "Out", "Sider", User.Role.CLIENT));
+		Account source = createAccount(payer, new BigDecimal("100000.00"));
+		Account target = createAccount(payer, BigDecimal.ZERO);
+		Account foreign = createAccount(other, new BigDecimal("100.00"));
+
+		List<Transfer> lines = new ArrayList<>();
+		for (int i = 0; i < LINES; i++) {
+			lines.add(transfer("10.00", source.getIban(), target.getIban()));
+		}
+		// Same source and destination, not owned by the payer, more than the balance
+		lines.set(10, transfer("10.00", source.getIban(), source.getIban()));
+		lines.set(600, transfer("10.00", foreign.getIban(), target.getIban()));
+		lines.set(1100, transfer("1000000.00", source.getIban(), target.getIban()));
+
+		TransferBatchReport report = transferBatchService.executeBatch(lines.iterator(), payer.getId());
+
+		assertThat(report.getTotal()).isEqualTo(LINES);
+		assertThat(report.getFailed()).isEqualTo(3);
+		assertThat(report.getCompleted()).isEqualTo(LINES - 3);
+		assertThat(report.getResults().get(600).getLine()).isEqualTo(601);
+		assertThat(report.getResults().get(600).getError()).startsWith("Access denied");
+
+		BigDecimal moved = new BigDecimal("10.00").multiply(BigDecimal.valueOf(LINES - 3));
+		assertThat(accountService.getAccountBalance(target.getId())).isEqualByComparingTo(moved);
+		assertThat(accountService.getAccountBalance(foreign.getId())).isEqualByComparingTo("100.00");
+	}
+
+	@Test
+	void batchThroughputAgainstSingleTransfers() {
+		User payer = userService.createUser(
+			new User("bulkpayer", "bulkpayer123", "bulkpayer@example.com", "Bulk", "Payer", User.Role.CLIENT));
+		Account source = createAccount(payer, new BigDecimal("1000000.00"));
+		Account target = createAccount(payer, BigDecimal.ZERO);
+
+		// Warm both paths up before timing them
+		for (int i = 0; i < 50; i++) {
+			transferService.executeTransfer(transfer("1.00", source.getIban(), target.getIban()));
+		}
+		transferBatchService.executeBatch(transfers(500, source, target).iterator(), payer.getId());
+
+		long start = System.nanoTime();
+		for (Transfer transfer : transfers(BENCHMARK_TRANSFERS, source, target)) {
+			transferService.executeTransfer(transfer);
+		}
+		double singleSeconds = (System.nanoTime() - start) / 1e9;
+
+		start = System.nanoTime();
+		TransferBatchReport report = transferBatchService.executeBatch(
+			transfers(BENCHMARK_TRANSFERS, source, target).iterator(), payer.getId());
+		double batchSeconds = (System.nanoTime() - start) / 1e9;
+
+		double singleRate = BENCHMARK_TRANSFERS / singleSeconds;
+		double batchRate = BENCHMARK_TRANSFERS / batchSeconds;
+		System.out.printf("Transfers: %.0f/s one by one, %.0f/s in a batch, %.1fx%n",
+			singleRate, batchRate, batchRate / singleRate);
+
+		assertThat(report.getCompleted()).isEqualTo(BENCHMARK_TRANSFERS);
+		assertThat(batchRate / singleRate).isGreaterThanOrEqualTo(MIN_SPEEDUP);
+	}
+
+	private List<Transfer> transfers(int count, Account source, Account target) {
+		List<Transfer> transfers = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			transfers.add(transfer("1.00", source.getIban(), target.getIban()));
+		}
+		return transfers;
+	}
+
+	private Account createAccount(User owner, BigDecimal balance) {
+		Account account = new Account(accountService.generateIban(), "Batch account", Account.AccountType.BUSINESS, owner);
+		account.setBalance(balance);
+		return accountService.createAccount(account);
+	}
+
+	private Transfer transfer(String amount, String fromIban, String toIban) {
+		Transfer transfer = new Transfer(new BigDecimal(amount), fromIban, toIban, "Employee", "Salary", null);
+		return transfer;
+	}
+}
@@ -0,0 +1,142 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class TransferIdempotencyServiceTest {
+
+	@Autowired
+	private TransferIdempotencyService transferIdempotencyService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private IdempotencyKeyRepository idempotencyKeyRepository;
+
+	@Test
+	void concurrentRetriesWithTheSameKeyDebitOnce() throws Exception {
+		User owner = userService.createUser(
+			new User("retry", "retry123", "retry@example.com", "Retry", "Storm", User.Role.CLIENT));
+		Account source = createAccount(owner, new BigDecimal("1000.00"));
+		Account target = createAccount(owner, BigDecimal.ZERO);
+		String key = UUID.randomUUID().toString();
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<Future<Transfer>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < 32; i++) {
+				results.add(pool.submit(() -> transferIdempotencyService.executeTransfer(owner.getId(), key,
+					new Transfer(new BigDecimal("100.00"), source.getIban(), target.getIban(), "Retry", "Retried", source))));
+			}
+			Long transferId = results.get(0).get().getId();
+			for (Future<Transfer> result : results) {
+				assertThat(result.get().getId()).isEqualTo(transferId);
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		assertThat(accountService.getAccountBalance(target.getId())).isEqualByComparingTo("100.00");
+	}
+
+	@Test
+	void reusingAKeyForADifferentTransferIsRejected() {
+		User owner = userService.createUser(
+			new User("reuser", "reuser123", "reuser@example.com", "Re", "User", User.Role.CLIENT));
+		Account source = createAccount(owner, new BigDecimal("1000.00"));
+		Account target = createAccount(owner, BigDecimal.ZERO);
+		String key = UUID.randomUUID().toString();
+
+		Transfer first = transferIdempotencyService.executeTransfer(owner.getId(), key,
+			new Transfer(new BigDecimal("100.00"), source.getIban(), target.getIban(), "Re", "Once", null));
+		// The same request with the amount written differently is a retry
+		assertThat(transferIdempotencyService.executeTransfer(owner.getId(), key,
+			new Transfer(new BigDecimal("100"), source.getIban(), target.getIban(), "Re", "Once", null)).getId())
+			.isEqualTo(first.getId());
+
+		Transfer different = new Transfer(new BigDecimal("900.00"), source.getIban(), target.getIban(), "Re", "Once", null);
+		assertThatThrownBy(() -> transferIdempotencyService.executeTransfer(owner.getId(), key, different))
+			.isInstanceOf(IdempotencyKeyReuseException.class);
+		// Also when the result is no longer cached and the stored fingerprint decides
+		((Map<?, ?>) ReflectionTestUtils.getField(transferIdempotencyService, "completed")).clear();
+		assertThatThrownBy(() -> transferIdempotencyService.executeTransfer(owner.getId(), key, different))
+			.isInstanceOf(IdempotencyKeyReuseException.class);
+
+		assertThat(accountService.getAccountBalance(target.getId())).isEqualByComparingTo("100.00");
+	}
+
+	@Test
+	void expiredKeysArePurged() {
+		User owner = userService.createUser(
+			new User("purger", "purger123", "purger@example.com", "Pur", "Ger", User.Role.CLIENT));
+		Account source = createAccount(owner, new BigDecimal("1000.00"));
+		Account target = createAccount(owner, BigDecimal.ZERO);
+		String key = UUID.randomUUID().toString();
+		transferIdempotencyService.executeTransfer(owner.getId(), key,
+			new Transfer(new BigDecimal("1.00"), source.getIban(), target.getIban(), "Pur", "Ger", null));
+
+		transferIdempotencyService.purgeExpiredKeys(LocalDateTime.now(), 1000);
+		assertThat(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(owner.getId(), key)).isPresent();
+
+		// Past the one day TTL
+		assertThat(transferIdempotencyService.purgeExpiredKeys(LocalDateTime.now().plusDays(2), 1000)).isPositive();
+		assertThat(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(owner.getId(), key)).isEmpty();
+	}
+
+	@Test
+	void cachedResultsExpireWithTheirStoredKey() throws Exception {
+		User owner = userService.createUser(
+			new User("expirer", "expirer123", "expirer@example.com", "Ex", "Pirer", User.Role.CLIENT));
+		Account source = createAccount(owner, new BigDecimal("1000.00"));
+		Account target = createAccount(owner, BigDecimal.ZERO);
+		String key = UUID.randomUUID().toString();
+
+		Object ttlMs = ReflectionTestUtils.getField(transferIdempotencyService, "ttlMs");
+		ReflectionTestUtils.setField(transferIdempotencyService, "ttlMs", 50L);
+		try {
+			Transfer first = transferIdempotencyService.executeTransfer(owner.getId(), key,
+				new Transfer(new BigDecimal("1.00"), source.getIban(), target.getIban(), "Ex", "Pirer", null));
+			Thread.sleep(100);
+			assertThat(transferIdempotencyService.purgeExpiredKeys(LocalDateTime.now(), 1000)).isPositive();
+
+			// Purged from the database, so this node must not replay it from memory either
+			Transfer second = transferIdempotencyService.executeTransfer(owner.getId(), key,
+				new Transfer(new BigDecimal("1.00"), source.getIban(), target.getIban(), "Ex", "Pirer", null));
+			assertThat(second.getId()).isNotEqualTo(first.getId());
+		} finally {
+			ReflectionTestUtils.setField(transferIdempotencyService, "ttlMs", ttlMs);
+		}
+
+		assertThat(accountService.getAccountBalance(target.getId())).isEqualByComparingTo("2.00");
+	}
+
+	private Account createAccount(User owner, BigDecimal balance) {
+		Account account = new Account(accountService.generateIban(), "Retry account", Account.AccountType.CHECKING, owner);
+		account.setBalance(balance);
+		return accountService.createAccount(account);
+	}
+}
@@ -0,0 +1,99 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts JDBC statements prepared per executed transfer, with JDBC batching and, as the baseline,
+ * with batching turned off for the session. With batching every group of inserts or updates
+ * costs a single prepared statement executed as one batch.
+ */
+@SpringBootTest
+class TransferRoundTripBenchmarkTest {
+
+	private static final int WARMUP = 50;
+	private static final int TRANSFERS = 500;
+
+	@Autowired
+	private TransferService transferService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void statementsPerTransfer() {
+		User owner = userService.createUser(
+			new User("roundtrip", "roundtrip123", "roundtrip@example.com", "Round", "Trip", User.Role.CLIENT));
+		Account from = createAccount(owner, new BigDecimal("1000000.00"));
+		Account to = createAccount(owner, BigDecimal.ZERO);
+
+		// Same transfer in a transaction whose session sends every insert and update on its own
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		double unbatched = measure("unbatched", () -> template.executeWithoutResult(status -> {
+			entityManager.unwrap(Session.class).setJdbcBatchSize(0);
+			transfer(from, to);
+		}));
+		double batched = measure("batched", () -> transfer(from, to));
+
+		assertThat(batched).isLessThan(unbatched);
+		// Account lock read, then one batch each for the transfer, the ledger entries and the balances
+		assertThat(batched).isLessThanOrEqualTo(4.5);
+	}
+
+	private double measure(String label, Runnable transfer) {
+		for (int i = 0; i < WARMUP; i++) {
+			transfer.run();
+		}
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		long start = System.nanoTime();
+		for (int i = 0; i < TRANSFERS; i++) {
+			transfer.run();
+		}
+		long elapsedMicros = (System.nanoTime() - start) / 1000;
+
+		double statementsPerTransfer = (double) statistics.getPrepareStatementCount() / TRANSFERS;
+		System.out.printf("Transfer round trips (%s): %.2f statements/transfer, %d entity inserts, %d us/transfer%n",
+			label, statementsPerTransfer, statistics.getEntityInsertCount(), elapsedMicros / TRANSFERS);
+		return statementsPerTransfer;
+	}
+
+	private void transfer(Account from, Account to) {
+		transferService.executeTransfer(
+			new Transfer(new BigDecimal("1.00"), from.getIban(), to.getIban(), "Benchmark", "Round trips", null));
+	}
+
+	private Account createAccount(User owner, BigDecimal balance) {
+		Account account = new Account(accountService.generateIban(), "Round trip account", Account.AccountType.CHECKING, owner);
+		account.setBalance(balance);
+		return accountService.createAccount(account);
+	}
+}
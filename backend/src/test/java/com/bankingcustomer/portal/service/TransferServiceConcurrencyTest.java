@@ -0,0 +1,131 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.repository.AccountRepository;
+import com.bankingcustomer.portal.repository.TransferRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Parallel transfers between a few hot accounts conserve money, with the account lanes serializing
+ * them and with only the database locks and version checks to rely on. Retries use the production
+ * budget: in lanes every transfer completes, without them the optimistic ones may run out of
+ * attempts, and such a transfer must leave no trace.
+ */
+@SpringBootTest
+class TransferServiceConcurrencyTest {
+
+	private static final int ACCOUNTS = 4;
+	private static final int THREADS = 16;
+	private static final int TRANSFERS = 4000;
+	private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000.00");
+
+	@Autowired
+	private TransferService transferService;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private TransferRepository transferRepository;
+
+	@Autowired
+	private AccountLanes accountLanes;
+
+	@Test
+	void parallelTransfersInLanesAllCompleteAndConserveMoney() throws Exception {
+		assertThat(runStress("stress-lanes", 1)).isZero();
+	}
+
+	@Test
+	void parallelTransfersWithoutLanesConserveMoney() throws Exception {
+		ReflectionTestUtils.setField(accountLanes, "enabled", false);
+		try {
+			int rejected = runStress("stress-direct", 1 + ACCOUNTS);
+			System.out.printf("Without lanes %d of %d transfers ran out of retries%n", rejected, TRANSFERS);
+			assertThat(rejected).isLessThan(TRANSFERS / 10);
+		} finally {
+			ReflectionTestUtils.setField(accountLanes, "enabled", true);
+		}
+	}
+
+	/**
+	 * @return the number of transfers rejected after exhausting their retries
+	 */
+	private int runStress(String username, int firstAccount) throws Exception {
+		User owner = userService.createUser(
+			new User(username, "stress123", username + "@example.com", "Stress", "Test", User.Role.CLIENT));
+
+		// The first two IBANs of each run are configured as pessimistic, the others use optimistic retries
+		List<String> ibans = new ArrayList<>();
+		for (int i = 0; i < ACCOUNTS; i++) {
+			Account account = new Account(String.format("FR76300010000000000000%05d", firstAccount + i), "Hot account " + i,
+				Account.AccountType.CHECKING, owner);
+			account.setBalance(INITIAL_BALANCE);
+			ibans.add(accountService.createAccount(account).getIban());
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<Transfer>> results = new ArrayList<>();
+		int rejected = 0;
+		try {
+			for (int i = 0; i < TRANSFERS; i++) {
+				results.add(pool.submit(() -> {
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					int from = random.nextInt(ACCOUNTS);
+					int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+					BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 50000), 2);
+					Transfer transfer = new Transfer(amount, ibans.get(from), ibans.get(to), "Stress", "Stress transfer", null);
+					return transferService.executeTransfer(transfer);
+				}));
+			}
+			for (Future<Transfer> result : results) {
+				try {
+					assertThat(result.get().getStatus()).isEqualTo(Transfer.TransferStatus.COMPLETED);
+				} catch (ExecutionException e) {
+					assertThat(e.getCause()).isInstanceOf(ConcurrencyFailureException.class);
+					rejected++;
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		BigDecimal balances = ibans.stream()
+			.map(iban -> accountRepository.findByIban(iban).orElseThrow().getBalance())
+			.reduce(BigDecimal.ZERO, BigDecimal::add);
+		List<Transfer> completed = transferRepository.findAll().stream()
+			.filter(transfer -> ibans.contains(transfer.getFromIban()))
+			.filter(transfer -> transfer.getStatus() == Transfer.TransferStatus.COMPLETED)
+			.toList();
+		BigDecimal fees = completed.stream()
+			.map(Transfer::getTransferFee)
+			.reduce(BigDecimal.ZERO, BigDecimal::add);
+
+		assertThat(completed).hasSize(TRANSFERS - rejected);
+		assertThat(balances.add(fees)).isEqualByComparingTo(INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)));
+		return rejected;
+	}
+}
@@ -0,0 +1,69 @@
+package com.bankingcustomer.portal.service;
+
+import com.bankingcustomer.portal.entity.Account;
+import com.bankingcustomer.portal.entity.Transfer;
+import com.bankingcustomer.portal.entity.User;
+import com.bankingcustomer.portal.repository.TransferRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.transfers.settlement.enabled=true")
+class TransferSettlementWorkerTest {
+
+	private static final int TRANSFERS = 250;
+
+	@Autowired
+	private TransferService transferService;
+
+	@Autowired
+	private TransferRepository transferRepository;
+
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	void submittedTransfersAreSettledInTheBackground() throws Exception {
+		User owner = userService.createUser(
+			new User("async", "async123", "async@example.com", "Async", "Test", User.Role.CLIENT));
+		Account source = createAccount(owner, new BigDecimal("10000.00"));
+		Account target = createAccount(owner, BigDecimal.ZERO);
+
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < TRANSFERS; i++) {
+			Transfer transfer = new Transfer(BigDecimal.ONE, source.getIban(), target.getIban(), "Async", "Queued", source);
+			Transfer pending = transferService.submitTransfer(transfer);
+			assertThat(pending.getStatus()).isEqualTo(Transfer.TransferStatus.PENDING);
+			ids.add(pending.getId());
+		}
+
+		long deadline = System.currentTimeMillis() + 20_000;
+		while (System.currentTimeMillis() < deadline && countCompleted(ids) < TRANSFERS) {
+			Thread.sleep(100);
+		}
+
+		assertThat(countCompleted(ids)).isEqualTo(TRANSFERS);
+		assertThat(accountService.getAccountBalance(target.getId())).isEqualByComparingTo(BigDecimal.valueOf(TRANSFERS));
+	}
+
+	private long countCompleted(List<Long> ids) {
+		return transferRepository.findAllById(ids).stream()
+			.filter(transfer -> transfer.getStatus() == Transfer.TransferStatus.COMPLETED)
+			.count();
+	}
+
+	private Account createAccount(User owner, BigDecimal balance) {
+		Account account = new Account(accountService.generateIban(), "Async account", Account.AccountType.CHECKING, owner);
+		account.setBalance(balance);
+		return accountService.createAccount(account);
+	}
+}
@@ -0,0 +1,82 @@
+package com.bankingcustomer.portal.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeReferenceNumberGeneratorTest {
+
+	private static final int THREADS = 8;
+	private static final int IDS_PER_THREAD = 500_000;
+
+	@Test
+	void idsAreUniqueAndMonotonicAcrossThreads() throws Exception {
+		SnowflakeReferenceNumberGenerator generator = new SnowflakeReferenceNumberGenerator(7);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<long[]>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			futures.add(pool.submit(() -> {
+				long[] ids = new long[IDS_PER_THREAD];
+				for (int i = 0; i < IDS_PER_THREAD; i++) {
+					ids[i] = generator.nextId();
+				}
+				return ids;
+			}));
+		}
+
+		long[] all = new long[THREADS * IDS_PER_THREAD];
+		int offset = 0;
+		for (Future<long[]> future : futures) {
+			long[] ids = future.get();
+			for (int i = 1; i < ids.length; i++) {
+				assertTrue(ids[i] > ids[i - 1], "ids must increase within a thread");
+			}
+			System.arraycopy(ids, 0, all, offset, ids.length);
+			offset += ids.length;
+		}
+		pool.shutdown();
+
+		Arrays.sort(all);
+		for (int i = 1; i < all.length; i++) {
+			assertNotEquals(all[i - 1], all[i], "duplicate id generated");
+		}
+	}
+
+	@Test
+	void nodesNeverCollide() {
+		SnowflakeReferenceNumberGenerator first = new SnowflakeReferenceNumberGenerator(1);
+		SnowflakeReferenceNumberGenerator second = new SnowflakeReferenceNumberGenerator(2);
+		for (int i = 0; i < 100_000; i++) {
+			assertNotEquals(first.nextId(), second.nextId());
+		}
+	}
+
+	@Test
+	void encodedReferencesKeepIdOrder() {
+		SnowflakeReferenceNumberGenerator generator = new SnowflakeReferenceNumberGenerator(3);
+		String previous = generator.next("TRF");
+		for (int i = 0; i < 10_000; i++) {
+			String next = generator.next("TRF");
+			assertEquals(16, next.length());
+			assertTrue(next.startsWith("TRF"));
+			assertTrue(next.compareTo(previous) > 0, "references must sort in generation order");
+			previous = next;
+		}
+	}
+
+	@Test
+	void rejectsOutOfRangeNodeId() {
+		assertThrows(IllegalArgumentException.class, () -> new SnowflakeReferenceNumberGenerator(1024));
+		assertThrows(IllegalArgumentException.class, () -> new SnowflakeReferenceNumberGenerator(-1));
+	}
+}
@@ -3,7 +3,7 @@
 import { useEffect, useState } from 'react';
 import { useAuth } from '@/contexts/AuthContext';
 import { useRouter } from 'next/navigation';
-import { Account, Transaction, Transfer, User, adminAPI } from '@/lib/api';
+import { AdminStats, Transfer, adminAPI } from '@/lib/api';
 import { toast } from 'react-toastify';
 import Navigation from '@/components/Navigation';
 import {
@@ -25,10 +25,7 @@ import {
 export default function AdminOverviewPage() {
   const { user, isAuthenticated } = useAuth();
   const router = useRouter();
-  const [accounts, setAccounts] = useState<Account[]>([]);
-  const [transactions, setTransactions] = useState<Transaction[]>([]);
-  const [transfers, setTransfers] = useState<Transfer[]>([]);
-  const [users, setUsers] = useState<User[]>([]);
+  const [systemStats, setSystemStats] = useState<AdminStats | null>(null);
   const [pendingTransfers, setPendingTransfers] = useState<Transfer[]>([]);
   const [isLoading, setIsLoading] = useState(true);
 
@@ -50,24 +47,12 @@ export default function AdminOverviewPage() {
   const fetchAllData = async () => {
     try {
       setIsLoading(true);
-      const [
-        accountsData,
-        transactionsData,
-        transfersData,
-        usersData,
-        pendingTransfersData
-      ] = await Promise.all([
-        adminAPI.getAllAccounts(),
-        adminAPI.getAllTransactions(),
-        adminAPI.getAllTransfers(),
-        adminAPI.getAllUsers(),
+      const [statsData, pendingTransfersData] = await Promise.all([
+        adminAPI.getStats(),
         adminAPI.getPendingTransfers()
       ]);
 
-      setAccounts(accountsData);
-      setTransactions(transactionsData);
-      setTransfers(transfersData);
-      setUsers(usersData);
+      setSystemStats(statsData);
       setPendingTransfers(pendingTransfersData);
     } catch (error) {
       console.error('Error fetching data:', error);
@@ -77,48 +62,34 @@ export default function AdminOverviewPage() {
     }
   };
 
-  const getSystemStats = () => {
-    const totalBalance = accounts.reduce((sum, account) => sum + account.balance, 0);
-    const totalTransactionVolume = transactions.reduce((sum, transaction) => sum + transaction.amount, 0);
-    const totalTransferVolume = transfers.reduce((sum, transfer) => sum + transfer.amount, 0);
-    
-    return {
-      totalBalance,
-      totalTransactionVolume,
-      totalTransferVolume,
-      totalAccounts: accounts.length,
-      totalUsers: users.length,
-      totalTransactions: transactions.length,
-      totalTransfers: transfers.length,
-      pendingTransfers: pendingTransfers.length
-    };
-  };
-
-  const getAccountTypeDistribution = () => {
-    const distribution = accounts.reduce((acc, account) => {
-      acc[account.accountType] = (acc[account.accountType] || 0) + 1;
-      return acc;
-    }, {} as Record<string, number>);
+  const getSystemStats = () => ({
+    totalBalance: systemStats?.totalBalance ?? 0,
+    totalAccounts: systemStats?.totalAccounts ?? 0,
+    totalUsers: systemStats?.totalUsers ?? 0,
+    pendingTransfers: systemStats?.transfersByStatus.PENDING?.count ?? pendingTransfers.length
+  });
 
-    return Object.entries(distribution).map(([type, count]) => ({
-      name: type,
-      value: count
-    }));
-  };
+  const getAccountTypeDistribution = () =>
+    Object.entries(systemStats?.accountsByType ?? {})
+      .filter(([, totals]) => totals.count > 0)
+      .map(([type, totals]) => ({
+        name: type,
+        value: totals.count
+      }));
 
   const getMonthlyTransactionData = () => {
     const monthlyData: Record<string, { transactions: number; volume: number }> = {};
-    
-    transactions.forEach(transaction => {
-      const date = new Date(transaction.transactionDate);
+
+    (systemStats?.transactionsByDay ?? []).forEach(day => {
+      const date = new Date(day.date);
       const monthKey = date.toLocaleString('default', { month: 'short', year: 'numeric' });
-      
+
       if (!monthlyData[monthKey]) {
         monthlyData[monthKey] = { transactions: 0, volume: 0 };
       }
-      
-      monthlyData[monthKey].transactions++;
-      monthlyData[monthKey].volume += transaction.amount;
+
+      monthlyData[monthKey].transactions += day.count;
+      monthlyData[monthKey].volume += day.volume;
     });
 
     return Object.entries(monthlyData).map(([month, data]) => ({
@@ -277,27 +248,21 @@ export default function AdminOverviewPage() {
 
           {/* Recent Activity */}
           <div className="grid grid-cols-1 lg:grid-cols-2 gap-6">
-            {/* Recent Transactions */}
+            {/* Transfers by Status */}
             <div className="bg-white shadow rounded-lg">
               <div className="px-6 py-4 border-b border-gray-200">
-                <h3 className="text-lg font-medium text-gray-900">Recent Transactions</h3>
+                <h3 className="text-lg font-medium text-gray-900">Transfers by Status</h3>
               </div>
               <div className="divide-y divide-gray-200 max-h-64 overflow-y-auto">
-                {transactions.slice(0, 5).map((transaction) => (
-                  <div key={transaction.id} className="px-6 py-4">
+                {Object.entries(systemStats?.transfersByStatus ?? {}).map(([status, totals]) => (
+                  <div key={status} className="px-6 py-4">
                     <div className="flex items-center justify-between">
                       <div>
-                        <p className="text-sm font-medium text-gray-900">
-                          {transaction.description}
-                        </p>
-                        <p className="text-sm text-gray-500">
-                          {new Date(transaction.transactionDate).toLocaleString()}
-                        </p>
+                        <p className="text-sm font-medium text-gray-900">{status}</p>
+                        <p className="text-sm text-gray-500">{totals.count} transfers</p>
                       </div>
-                      <div className={`text-sm font-medium ${
-                        transaction.transactionType === 'CREDIT' ? 'text-green-600' : 'text-red-600'
-                      }`}>
-                        {transaction.transactionType === 'CREDIT' ? '+' : '-'}€{transaction.amount.toFixed(2)}
+                      <div className="text-sm font-medium text-gray-900">
+                        €{totals.amount.toFixed(2)}
                       </div>
                     </div>
                   </div>
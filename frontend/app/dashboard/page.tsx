@@ -38,6 +38,22 @@ export default function Dashboard() {
     fetchData();
   }, [isAuthenticated]);
 
+  // Balances and new transactions are pushed by the server instead of being re-fetched
+  useEffect(() => {
+    if (!isAuthenticated) {
+      return;
+    }
+
+    return accountsAPI.streamAccountUpdates({
+      onBalance: (update) => setAccounts(current => current.map(account =>
+        account.id === update.accountId ? { ...account, balance: update.balance } : account
+      )),
+      onTransaction: (transaction) => setTransactions(current =>
+        current.some(existing => existing.id === transaction.id) ? current : [transaction, ...current]
+      ),
+    });
+  }, [isAuthenticated]);
+
   const fetchData = async () => {
     try {
       setIsLoading(true);
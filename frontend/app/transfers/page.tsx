@@ -36,7 +36,7 @@ export default function TransfersPage() {
       setIsLoading(true);
       const [accountsData, transfersResponse] = await Promise.all([
         accountsAPI.getUserAccounts(),
-        transfersAPI.getUserTransfers(0, 10)
+        transfersAPI.getUserTransfers(undefined, 10)
       ]);
       
       setAccounts(accountsData);
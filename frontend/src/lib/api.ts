@@ -44,6 +44,39 @@ export interface Transfer {
   processedAt?: string;
 }
 
+export interface BalanceUpdate {
+  accountId: number;
+  iban: string;
+  balance: number;
+}
+
+export interface AccountStreamHandlers {
+  onBalance: (update: BalanceUpdate) => void;
+  onTransaction: (transaction: Transaction) => void;
+}
+
+export interface StatsTotals {
+  count: number;
+  amount: number;
+}
+
+export interface DailyTransactionStats {
+  date: string;
+  transactionType: string;
+  count: number;
+  volume: number;
+}
+
+export interface AdminStats {
+  totalUsers: number;
+  totalAccounts: number;
+  totalBalance: number;
+  accountsByType: Record<string, StatsTotals>;
+  transactionsByDay: DailyTransactionStats[];
+  transfersByStatus: Record<string, StatsTotals>;
+  lastRollupAt?: string;
+}
+
 export interface LoginRequest {
   username: string;
   password: string;
@@ -143,16 +176,89 @@ export const accountsAPI = {
   
   getAccountBalance: (accountId: number): Promise<number> =>
     api.get(`/api/accounts/${accountId}/balance`).then(res => res.data),
+  
+  // Returns a function that closes the stream
+  streamAccountUpdates: (handlers: AccountStreamHandlers): (() => void) => {
+    const controller = new AbortController();
+    readAccountStream(handlers, controller.signal);
+    return () => controller.abort();
+  },
+};
+
+// EventSource cannot send the Authorization header, so the account stream is read with fetch.
+// The connection is reopened after the server ends it or the network drops it.
+const readAccountStream = async (handlers: AccountStreamHandlers, signal: AbortSignal) => {
+  while (!signal.aborted) {
+    try {
+      const token = localStorage.getItem('authToken');
+      const response = await fetch(`${API_BASE_URL}/api/accounts/stream`, {
+        headers: {
+          Accept: 'text/event-stream',
+          ...(token ? { Authorization: `Bearer ${token}` } : {}),
+        },
+        signal,
+      });
+      if (response.status === 401 || response.status === 403) {
+        return;
+      }
+      if (!response.ok || !response.body) {
+        throw new Error(`Account stream failed with status ${response.status}`);
+      }
+      
+      const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+      let buffer = '';
+      for (;;) {
+        const { value, done } = await reader.read();
+        if (done) {
+          break;
+        }
+        buffer += value;
+        let boundary;
+        while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+          dispatchStreamEvent(buffer.slice(0, boundary), handlers);
+          buffer = buffer.slice(boundary + 2);
+        }
+      }
+    } catch (error) {
+      if (signal.aborted) {
+        return;
+      }
+      console.error('Account stream error:', error);
+    }
+    await new Promise(resolve => setTimeout(resolve, 3000));
+  }
+};
+
+const dispatchStreamEvent = (frame: string, handlers: AccountStreamHandlers) => {
+  let event = 'message';
+  const data: string[] = [];
+  frame.split('\n').forEach(line => {
+    if (line.startsWith('event:')) {
+      event = line.slice('event:'.length).trim();
+    } else if (line.startsWith('data:')) {
+      data.push(line.slice('data:'.length));
+    }
+  });
+  // Heartbeats are comment lines without data
+  if (data.length === 0) {
+    return;
+  }
+  const payload = JSON.parse(data.join('\n'));
+  if (event === 'balance') {
+    handlers.onBalance(payload);
+  } else if (event === 'transaction') {
+    handlers.onTransaction(payload);
+  }
 };
 
 // Transactions API
 export const transactionsAPI = {
-  getAccountTransactions: (accountId: number, page = 0, size = 10): Promise<{
+  getAccountTransactions: (accountId: number, cursor?: string, size = 10): Promise<{
     content: Transaction[];
-    totalPages: number;
-    totalElements: number;
+    nextCursor: string | null;
+    hasNext: boolean;
   }> =>
-    api.get(`/api/transactions/account/${accountId}?page=${page}&size=${size}`).then(res => res.data),
+    api.get(`/api/transactions/account/${accountId}`, { params: { cursor, size } }).then(res => res.data),
   
   getUserTransactions: (): Promise<Transaction[]> =>
     api.get('/api/transactions/user').then(res => res.data),
@@ -166,12 +272,12 @@ export const transfersAPI = {
   executeTransfer: (transferData: TransferRequest): Promise<Transfer> =>
     api.post('/api/transfers/execute', transferData).then(res => res.data),
   
-  getUserTransfers: (page = 0, size = 10): Promise<{
+  getUserTransfers: (cursor?: string, size = 10): Promise<{
     content: Transfer[];
-    totalPages: number;
-    totalElements: number;
+    nextCursor: string | null;
+    hasNext: boolean;
   }> =>
-    api.get(`/api/transfers/user?page=${page}&size=${size}`).then(res => res.data),
+    api.get('/api/transfers/user', { params: { cursor, size } }).then(res => res.data),
   
   getTransferById: (transferId: number): Promise<Transfer> =>
     api.get(`/api/transfers/${transferId}`).then(res => res.data),
@@ -182,6 +288,10 @@ export const transfersAPI = {
 
 // Admin API endpoints
 export const adminAPI = {
+  // System overview, served from pre-aggregated counters
+  getStats: (): Promise<AdminStats> =>
+    api.get('/api/admin/stats').then(res => res.data),
+  
   // Admin Accounts
   getAllAccounts: (): Promise<Account[]> =>
     api.get('/api/accounts/all').then(res => res.data),